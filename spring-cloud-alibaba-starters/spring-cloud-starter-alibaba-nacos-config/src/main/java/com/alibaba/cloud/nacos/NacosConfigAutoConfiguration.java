@@ -18,15 +18,20 @@ package com.alibaba.cloud.nacos;
 
 import com.alibaba.cloud.nacos.refresh.NacosContextRefresher;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
+import com.alibaba.cloud.nacos.refresh.NacosTargetedRefresher;
 import com.alibaba.cloud.nacos.refresh.SmartConfigurationPropertiesRebinder;
 import com.alibaba.cloud.nacos.refresh.condition.ConditionalOnNonDefaultBehavior;
 
 import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.SearchStrategy;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesBeans;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -65,11 +70,25 @@ public class NacosConfigAutoConfiguration {
 	@Bean
 	public NacosContextRefresher nacosContextRefresher(
 			NacosConfigManager nacosConfigManager,
-			NacosRefreshHistory nacosRefreshHistory) {
+			NacosRefreshHistory nacosRefreshHistory,
+			ObjectProvider<NacosTargetedRefresher> targetedRefresher) {
 		// Consider that it is not necessary to be compatible with the previous
 		// configuration
 		// and use the new configuration if necessary.
-		return new NacosContextRefresher(nacosConfigManager, nacosRefreshHistory);
+		NacosContextRefresher refresher = new NacosContextRefresher(nacosConfigManager,
+				nacosRefreshHistory);
+		targetedRefresher.ifAvailable(refresher::setTargetedRefresher);
+		return refresher;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnNonDefaultBehavior
+	public NacosTargetedRefresher nacosTargetedRefresher(
+			ObjectProvider<ContextRefresher> contextRefresher,
+			ObjectProvider<RefreshScope> refreshScope,
+			ConfigurableListableBeanFactory beanFactory) {
+		return new NacosTargetedRefresher(contextRefresher, refreshScope, beanFactory);
 	}
 
 	@Bean
@@ -243,6 +243,31 @@ public class NacosConfigProperties {
 	 */
 	private boolean refreshEnabled = true;
 
+	/**
+	 * max number of dataIds fetched concurrently at startup, 1 to fetch them one after
+	 * another.
+	 */
+	private int loadConcurrency = 8;
+
+	/**
+	 * time without config change before refreshing, changes received in this time are
+	 * refreshed together, 0 to refresh on each change, in milliseconds.
+	 */
+	private long refreshQuietPeriod = 0;
+
+	/**
+	 * max time a config change waits for its refresh when changes keep coming, in
+	 * milliseconds.
+	 */
+	private long refreshMaxDelay = 5000;
+
+	/**
+	 * replace only the property sources of the changed dataIds with the content received
+	 * on a change, instead of loading every dataId again. Off by default, a change then
+	 * publishes a RefreshEvent.
+	 */
+	private boolean incrementalRefreshEnabled = false;
+
 	// todo sts support
 
 	public String getServerAddr() {
@@ -437,6 +462,38 @@ public class NacosConfigProperties {
 		this.refreshEnabled = refreshEnabled;
 	}
 
+	public int getLoadConcurrency() {
+		return loadConcurrency;
+	}
+
+	public void setLoadConcurrency(int loadConcurrency) {
+		this.loadConcurrency = loadConcurrency;
+	}
+
+	public long getRefreshQuietPeriod() {
+		return refreshQuietPeriod;
+	}
+
+	public void setRefreshQuietPeriod(long refreshQuietPeriod) {
+		this.refreshQuietPeriod = refreshQuietPeriod;
+	}
+
+	public long getRefreshMaxDelay() {
+		return refreshMaxDelay;
+	}
+
+	public void setRefreshMaxDelay(long refreshMaxDelay) {
+		this.refreshMaxDelay = refreshMaxDelay;
+	}
+
+	public boolean isIncrementalRefreshEnabled() {
+		return incrementalRefreshEnabled;
+	}
+
+	public void setIncrementalRefreshEnabled(boolean incrementalRefreshEnabled) {
+		this.incrementalRefreshEnabled = incrementalRefreshEnabled;
+	}
+
 	/**
 	 * recommend to use {@link NacosConfigProperties#sharedConfigs} .
 	 * @return string
@@ -619,7 +676,10 @@ public class NacosConfigProperties {
 				+ ", ramRoleName='" + ramRoleName + '\'' + ", contextPath='" + contextPath
 				+ '\'' + ", clusterName='" + clusterName + '\'' + ", name='" + name + '\''
 				+ '\'' + ", shares=" + sharedConfigs + ", extensions=" + extensionConfigs
-				+ ", refreshEnabled=" + refreshEnabled + '}';
+				+ ", refreshEnabled=" + refreshEnabled + ", loadConcurrency="
+				+ loadConcurrency + ", refreshQuietPeriod=" + refreshQuietPeriod
+				+ ", refreshMaxDelay=" + refreshMaxDelay + ", incrementalRefreshEnabled="
+				+ incrementalRefreshEnabled + '}';
 	}
 
 	public static class Config {
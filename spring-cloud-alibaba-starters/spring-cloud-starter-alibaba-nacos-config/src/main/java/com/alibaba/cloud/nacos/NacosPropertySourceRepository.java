@@ -63,11 +63,15 @@ public final class NacosPropertySourceRepository {
 		return NACOS_PROPERTY_SOURCE_REPOSITORY.get(dataId);
 	}
 
+	/**
+	 * Collect the property source of a dataId, replacing the one it was loaded into
+	 * before.
+	 * @param nacosPropertySource nacosPropertySource
+	 */
 	public static void collectNacosPropertySource(
 			NacosPropertySource nacosPropertySource) {
-		NACOS_PROPERTY_SOURCE_REPOSITORY
-				.putIfAbsent(getMapKey(nacosPropertySource.getDataId(),
-						nacosPropertySource.getGroup()), nacosPropertySource);
+		NACOS_PROPERTY_SOURCE_REPOSITORY.put(getMapKey(nacosPropertySource.getDataId(),
+				nacosPropertySource.getGroup()), nacosPropertySource);
 	}
 
 	public static NacosPropertySource getNacosPropertySource(String dataId,
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+
+/**
+ * Issues the {@link ConfigService#getConfig(String, String, long)} calls of several
+ * dataIds concurrently, on at most {@code concurrency} threads, so that loading them one
+ * after another in precedence order only waits for the slowest one.
+ * <p>
+ * A dataId is fetched once: {@link #getConfig(String, String)} returns the content
+ * fetched by {@link #prefetch(String, String)}, or fetches it if it was not prefetched.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosConfigPrefetcher {
+
+	private final ConfigService configService;
+
+	private final long timeout;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Map<String, CompletableFuture<String>> fetches = new ConcurrentHashMap<>();
+
+	/**
+	 * @param configService config service
+	 * @param timeout timeout of a fetch, in milliseconds
+	 * @param concurrency max fetches in flight
+	 */
+	public NacosConfigPrefetcher(ConfigService configService, long timeout,
+			int concurrency) {
+		this.configService = configService;
+		this.timeout = timeout;
+		int threads = Math.max(1, concurrency);
+		AtomicInteger index = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable,
+							"nacos-config-prefetch-" + index.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		// threads are released once the startup is over, even if never shut down
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Start fetching the content of a dataId.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 */
+	public void prefetch(String dataId, String group) {
+		fetches.computeIfAbsent(NacosPropertySourceRepository.getMapKey(dataId, group),
+				key -> fetchAsync(dataId, group));
+	}
+
+	private CompletableFuture<String> fetchAsync(String dataId, String group) {
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return configService.getConfig(dataId, group, timeout);
+				}
+				catch (NacosException e) {
+					throw new CompletionException(e);
+				}
+			}, executor);
+		}
+		catch (RejectedExecutionException e) {
+			// shut down, fetched on demand
+			return null;
+		}
+	}
+
+	/**
+	 * Content of a dataId, waiting for its prefetch if it was prefetched.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return the content, null if it does not exist
+	 * @throws NacosException if the fetch failed
+	 */
+	public String getConfig(String dataId, String group) throws NacosException {
+		CompletableFuture<String> fetch = fetches
+				.get(NacosPropertySourceRepository.getMapKey(dataId, group));
+		if (fetch == null) {
+			return configService.getConfig(dataId, group, timeout);
+		}
+		try {
+			return fetch.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof NacosException) {
+				throw (NacosException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Release the threads and the fetched contents.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		fetches.clear();
+	}
+
+}
@@ -22,7 +22,7 @@ import java.util.List;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
-import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import com.alibaba.cloud.nacos.parser.NacosParsedDataCache;
 import com.alibaba.nacos.api.config.ConfigService;
 import com.alibaba.nacos.api.exception.NacosException;
 import org.slf4j.Logger;
@@ -43,6 +43,10 @@ public class NacosPropertySourceBuilder {
 
 	private long timeout;
 
+	private NacosConfigPrefetcher configPrefetcher;
+
+	private String namespace;
+
 	public NacosPropertySourceBuilder(ConfigService configService, long timeout) {
 		this.configService = configService;
 		this.timeout = timeout;
@@ -64,6 +68,28 @@ public class NacosPropertySourceBuilder {
 		this.configService = configService;
 	}
 
+	public NacosConfigPrefetcher getConfigPrefetcher() {
+		return configPrefetcher;
+	}
+
+	/**
+	 * @param configPrefetcher prefetcher the contents are taken from, nullable
+	 */
+	public void setConfigPrefetcher(NacosConfigPrefetcher configPrefetcher) {
+		this.configPrefetcher = configPrefetcher;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * @param namespace namespace the contents are parsed for, nullable
+	 */
+	public void setNamespace(String namespace) {
+		this.namespace = namespace;
+	}
+
 	/**
 	 * @param dataId Nacos dataId
 	 * @param group Nacos group
@@ -82,19 +108,19 @@ public class NacosPropertySourceBuilder {
 			String fileExtension) {
 		String data = null;
 		try {
-			data = configService.getConfig(dataId, group, timeout);
+			data = configPrefetcher != null ? configPrefetcher.getConfig(dataId, group)
+					: configService.getConfig(dataId, group, timeout);
 			if (StringUtils.isEmpty(data)) {
 				log.warn(
 						"Ignore the empty nacos configuration and get it based on dataId[{}] & group[{}]",
 						dataId, group);
-				return Collections.emptyList();
 			}
-			if (log.isDebugEnabled()) {
+			else if (log.isDebugEnabled()) {
 				log.debug(String.format(
 						"Loading nacos data, dataId: '%s', group: '%s', data: %s", dataId,
 						group, data));
 			}
-			return NacosDataParserHandler.getInstance().parseNacosData(dataId, data,
+			return NacosParsedDataCache.parseNacosData(namespace, dataId, group, data,
 					fileExtension);
 		}
 		catch (NacosException e) {
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos.client;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
@@ -84,6 +85,7 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		long timeout = nacosConfigProperties.getTimeout();
 		nacosPropertySourceBuilder = new NacosPropertySourceBuilder(configService,
 				timeout);
+		nacosPropertySourceBuilder.setNamespace(nacosConfigProperties.getNamespace());
 		String name = nacosConfigProperties.getName();
 
 		String dataIdPrefix = nacosConfigProperties.getPrefix();
@@ -98,64 +100,105 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		CompositePropertySource composite = new CompositePropertySource(
 				NACOS_PROPERTY_SOURCE_NAME);
 
-		loadSharedConfiguration(composite);
-		loadExtConfiguration(composite);
-		loadApplicationConfiguration(composite, dataIdPrefix, nacosConfigProperties, env);
+		List<ConfigLoad> loads = new ArrayList<>();
+		loadSharedConfiguration(loads);
+		loadExtConfiguration(loads);
+		loadApplicationConfiguration(loads, dataIdPrefix, nacosConfigProperties, env);
+
+		NacosConfigPrefetcher prefetcher = prefetch(configService, timeout, loads);
+		try {
+			// built one after another, the later ones having a higher priority
+			for (ConfigLoad load : loads) {
+				NacosPropertySource propertySource = this.loadNacosPropertySource(
+						load.dataId, load.group, load.fileExtension, load.refreshable);
+				this.addFirstPropertySource(composite, propertySource, false);
+			}
+		}
+		finally {
+			if (prefetcher != null) {
+				prefetcher.shutdown();
+				// later builds, such as a refresh, read from Nacos again
+				nacosPropertySourceBuilder.setConfigPrefetcher(null);
+			}
+		}
 		return composite;
 	}
 
+	/**
+	 * Fetch the contents of the dataIds concurrently, with at most
+	 * {@code spring.cloud.nacos.config.load-concurrency} fetches in flight.
+	 */
+	private NacosConfigPrefetcher prefetch(ConfigService configService, long timeout,
+			List<ConfigLoad> loads) {
+		List<ConfigLoad> fetched = new ArrayList<>(loads.size());
+		for (ConfigLoad load : loads) {
+			if (!isReused(load.refreshable)) {
+				fetched.add(load);
+			}
+		}
+		int concurrency = Math.min(fetched.size(),
+				nacosConfigProperties.getLoadConcurrency());
+		if (concurrency <= 1) {
+			return null;
+		}
+		NacosConfigPrefetcher prefetcher = new NacosConfigPrefetcher(configService,
+				timeout, concurrency);
+		for (ConfigLoad load : fetched) {
+			prefetcher.prefetch(load.dataId, load.group);
+		}
+		nacosPropertySourceBuilder.setConfigPrefetcher(prefetcher);
+		return prefetcher;
+	}
+
 	/**
 	 * load shared configuration.
 	 */
-	private void loadSharedConfiguration(
-			CompositePropertySource compositePropertySource) {
+	private void loadSharedConfiguration(List<ConfigLoad> loads) {
 		List<NacosConfigProperties.Config> sharedConfigs = nacosConfigProperties
 				.getSharedConfigs();
 		if (!CollectionUtils.isEmpty(sharedConfigs)) {
 			checkConfiguration(sharedConfigs, "shared-configs");
-			loadNacosConfiguration(compositePropertySource, sharedConfigs);
+			loadNacosConfiguration(loads, sharedConfigs);
 		}
 	}
 
 	/**
 	 * load extensional configuration.
 	 */
-	private void loadExtConfiguration(CompositePropertySource compositePropertySource) {
+	private void loadExtConfiguration(List<ConfigLoad> loads) {
 		List<NacosConfigProperties.Config> extConfigs = nacosConfigProperties
 				.getExtensionConfigs();
 		if (!CollectionUtils.isEmpty(extConfigs)) {
 			checkConfiguration(extConfigs, "extension-configs");
-			loadNacosConfiguration(compositePropertySource, extConfigs);
+			loadNacosConfiguration(loads, extConfigs);
 		}
 	}
 
 	/**
 	 * load configuration of application.
 	 */
-	private void loadApplicationConfiguration(
-			CompositePropertySource compositePropertySource, String dataIdPrefix,
-			NacosConfigProperties properties, Environment environment) {
+	private void loadApplicationConfiguration(List<ConfigLoad> loads,
+			String dataIdPrefix, NacosConfigProperties properties,
+			Environment environment) {
 		String fileExtension = properties.getFileExtension();
 		String nacosGroup = properties.getGroup();
 		// load directly once by default
-		loadNacosDataIfPresent(compositePropertySource, dataIdPrefix, nacosGroup,
-				fileExtension, true);
+		loadNacosDataIfPresent(loads, dataIdPrefix, nacosGroup, fileExtension, true);
 		// load with suffix, which have a higher priority than the default
-		loadNacosDataIfPresent(compositePropertySource,
-				dataIdPrefix + DOT + fileExtension, nacosGroup, fileExtension, true);
+		loadNacosDataIfPresent(loads, dataIdPrefix + DOT + fileExtension, nacosGroup,
+				fileExtension, true);
 		// Loaded with profile, which have a higher priority than the suffix
 		for (String profile : environment.getActiveProfiles()) {
 			String dataId = dataIdPrefix + SEP1 + profile + DOT + fileExtension;
-			loadNacosDataIfPresent(compositePropertySource, dataId, nacosGroup,
-					fileExtension, true);
+			loadNacosDataIfPresent(loads, dataId, nacosGroup, fileExtension, true);
 		}
 
 	}
 
-	private void loadNacosConfiguration(final CompositePropertySource composite,
+	private void loadNacosConfiguration(List<ConfigLoad> loads,
 			List<NacosConfigProperties.Config> configs) {
 		for (NacosConfigProperties.Config config : configs) {
-			loadNacosDataIfPresent(composite, config.getDataId(), config.getGroup(),
+			loadNacosDataIfPresent(loads, config.getDataId(), config.getGroup(),
 					NacosDataParserHandler.getInstance()
 							.getFileExtension(config.getDataId()),
 					config.isRefresh());
@@ -174,7 +217,7 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		}
 	}
 
-	private void loadNacosDataIfPresent(final CompositePropertySource composite,
+	private void loadNacosDataIfPresent(List<ConfigLoad> loads,
 			final String dataId, final String group, String fileExtension,
 			boolean isRefreshable) {
 		if (null == dataId || dataId.trim().length() < 1) {
@@ -183,23 +226,25 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		if (null == group || group.trim().length() < 1) {
 			return;
 		}
-		NacosPropertySource propertySource = this.loadNacosPropertySource(dataId, group,
-				fileExtension, isRefreshable);
-		this.addFirstPropertySource(composite, propertySource, false);
+		loads.add(new ConfigLoad(dataId, group, fileExtension, isRefreshable));
 	}
 
 	private NacosPropertySource loadNacosPropertySource(final String dataId,
 			final String group, String fileExtension, boolean isRefreshable) {
-		if (NacosContextRefresher.getRefreshCount() != 0) {
-			if (!isRefreshable) {
-				return NacosPropertySourceRepository.getNacosPropertySource(dataId,
-						group);
-			}
+		if (isReused(isRefreshable)) {
+			return NacosPropertySourceRepository.getNacosPropertySource(dataId, group);
 		}
 		return nacosPropertySourceBuilder.build(dataId, group, fileExtension,
 				isRefreshable);
 	}
 
+	/**
+	 * A configuration that is not refreshable is loaded once.
+	 */
+	private boolean isReused(boolean isRefreshable) {
+		return NacosContextRefresher.getRefreshCount() != 0 && !isRefreshable;
+	}
+
 	/**
 	 * Add the nacos configuration to the first place and maybe ignore the empty
 	 * configuration.
@@ -219,4 +264,24 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		this.nacosConfigManager = nacosConfigManager;
 	}
 
+	private static final class ConfigLoad {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String fileExtension;
+
+		private final boolean refreshable;
+
+		private ConfigLoad(String dataId, String group, String fileExtension,
+				boolean refreshable) {
+			this.dataId = dataId;
+			this.group = group;
+			this.fileExtension = fileExtension;
+			this.refreshable = refreshable;
+		}
+
+	}
+
 }
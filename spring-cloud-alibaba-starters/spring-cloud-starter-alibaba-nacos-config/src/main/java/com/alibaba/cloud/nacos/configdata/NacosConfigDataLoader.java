@@ -24,8 +24,9 @@ import java.util.List;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosConfigPrefetcher;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
-import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import com.alibaba.cloud.nacos.parser.NacosParsedDataCache;
 import com.alibaba.nacos.api.config.ConfigService;
 import com.alibaba.nacos.api.exception.NacosException;
 import org.apache.commons.logging.Log;
@@ -76,12 +77,14 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 					.getConfigService();
 			NacosConfigProperties properties = getBean(context,
 					NacosConfigProperties.class);
+			NacosConfigPrefetcher prefetcher = getBean(context,
+					NacosConfigPrefetcher.class);
 
 			NacosItemConfig config = resource.getConfig();
 			// pull config from nacos
 			List<PropertySource<?>> propertySources = pullConfig(configService,
-					config.getGroup(), config.getDataId(), config.getSuffix(),
-					properties.getTimeout());
+					prefetcher, properties.getNamespace(), config.getGroup(),
+					config.getDataId(), config.getSuffix(), properties.getTimeout());
 
 			NacosPropertySource propertySource = new NacosPropertySource(propertySources,
 					config.getGroup(), config.getDataId(), new Date(),
@@ -135,12 +138,15 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 		return preference;
 	}
 
-	private List<PropertySource<?>> pullConfig(ConfigService configService, String group,
+	private List<PropertySource<?>> pullConfig(ConfigService configService,
+			NacosConfigPrefetcher prefetcher, String namespace, String group,
 			String dataId, String suffix, long timeout)
 			throws NacosException, IOException {
-		String config = configService.getConfig(dataId, group, timeout);
+		// prefetched by NacosConfigDataLocationResolver, if enabled
+		String config = prefetcher != null ? prefetcher.getConfig(dataId, group)
+				: configService.getConfig(dataId, group, timeout);
 		logLoadInfo(group, dataId, config);
-		return NacosDataParserHandler.getInstance().parseNacosData(dataId, config,
+		return NacosParsedDataCache.parseNacosData(namespace, dataId, group, config,
 				suffix);
 	}
 
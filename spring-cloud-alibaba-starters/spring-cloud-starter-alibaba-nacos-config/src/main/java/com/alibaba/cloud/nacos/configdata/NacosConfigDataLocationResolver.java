@@ -27,6 +27,7 @@ import java.util.Map;
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.client.NacosConfigPrefetcher;
 import org.apache.commons.logging.Log;
 
 import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
@@ -151,8 +152,30 @@ public class NacosConfigDataLocationResolver
 				InstanceSupplier.of(properties));
 
 		registerConfigManager(properties, bootstrapContext);
+		registerConfigPrefetcher(properties, bootstrapContext);
 
-		return loadConfigDataResources(location, profiles, properties);
+		List<NacosConfigDataResource> resources = loadConfigDataResources(location,
+				profiles, properties);
+		prefetch(resources, bootstrapContext);
+		return resources;
+	}
+
+	/**
+	 * All the locations are resolved before any of them is loaded, so starting to fetch
+	 * them here lets {@link NacosConfigDataLoader} load them one after another without
+	 * waiting for each fetch in turn.
+	 */
+	private void prefetch(List<NacosConfigDataResource> resources,
+			ConfigurableBootstrapContext bootstrapContext) {
+		if (!bootstrapContext.isRegistered(NacosConfigPrefetcher.class)) {
+			return;
+		}
+		NacosConfigPrefetcher prefetcher = bootstrapContext
+				.get(NacosConfigPrefetcher.class);
+		for (NacosConfigDataResource resource : resources) {
+			NacosItemConfig config = resource.getConfig();
+			prefetcher.prefetch(config.getDataId(), config.getGroup());
+		}
 	}
 
 	private List<NacosConfigDataResource> loadConfigDataResources(
@@ -200,6 +223,20 @@ public class NacosConfigDataLocationResolver
 		}
 	}
 
+	private void registerConfigPrefetcher(NacosConfigProperties properties,
+			ConfigurableBootstrapContext bootstrapContext) {
+		if (properties.getLoadConcurrency() <= 1
+				|| bootstrapContext.isRegistered(NacosConfigPrefetcher.class)) {
+			return;
+		}
+		bootstrapContext.register(NacosConfigPrefetcher.class,
+				InstanceSupplier.from(context -> new NacosConfigPrefetcher(
+						context.get(NacosConfigManager.class).getConfigService(),
+						properties.getTimeout(), properties.getLoadConcurrency())));
+		bootstrapContext.addCloseListener(event -> event.getBootstrapContext()
+				.get(NacosConfigPrefetcher.class).shutdown());
+	}
+
 	private URI getUri(String uris) {
 		if (!uris.startsWith("http://") && !uris.startsWith("https://")) {
 			uris = "http://" + uris;
@@ -68,6 +68,7 @@ public class NacosConfigEndpoint {
 		}
 		result.put("Sources", sources);
 		result.put("RefreshHistory", refreshHistory.getRecords());
+		result.put("RefreshCoalesced", refreshHistory.getCoalescedCount());
 
 		return result;
 	}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The last parsed property sources of each dataId of a namespace, keyed by the digest of
+ * its content.
+ * <p>
+ * A refresh reloads every refreshable dataId while usually only one changed, so the
+ * property sources of a dataId whose content is unchanged are reused instead of
+ * parsing it again. They are immutable, see
+ * {@link NacosDataParserHandler#parseNacosData(String, String, String)}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public final class NacosParsedDataCache {
+
+	private static final ConcurrentHashMap<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+	private NacosParsedDataCache() {
+
+	}
+
+	/**
+	 * Parse the content of a dataId, or reuse its last parsed property sources if the
+	 * content did not change.
+	 * @param namespace Nacos namespace
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param content content of the dataId
+	 * @param extension identifies the type of the content
+	 * @return property sources, unmodifiable
+	 * @throws IOException thrown if there is a problem parsing config.
+	 */
+	public static List<PropertySource<?>> parseNacosData(String namespace,
+			String dataId, String group, String content, String extension)
+			throws IOException {
+		String key = getKey(namespace, dataId, group);
+		// the same digest as the one Nacos uses to detect a change of content
+		String digest = DigestUtils.md5DigestAsHex(
+				(content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+		Entry entry = CACHE.get(key);
+		if (entry != null && entry.digest.equals(digest)
+				&& Objects.equals(entry.extension, extension)) {
+			return entry.propertySources;
+		}
+		// an emptied dataId is cached too, so that it no longer shows its last content
+		List<PropertySource<?>> propertySources = StringUtils.hasLength(content)
+				? Collections.unmodifiableList(NacosDataParserHandler.getInstance()
+						.parseNacosData(dataId, content, extension))
+				: Collections.emptyList();
+		CACHE.put(key, new Entry(digest, extension, propertySources));
+		return propertySources;
+	}
+
+	/**
+	 * @param namespace Nacos namespace
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return the extension the dataId was last parsed with, null if it was not parsed
+	 */
+	public static String getExtension(String namespace, String dataId, String group) {
+		Entry entry = CACHE.get(getKey(namespace, dataId, group));
+		return entry == null ? null : entry.extension;
+	}
+
+	/**
+	 * @param namespace Nacos namespace
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return the property sources the dataId was last parsed into, null if it was not
+	 * parsed
+	 */
+	public static List<PropertySource<?>> getPropertySources(String namespace,
+			String dataId, String group) {
+		Entry entry = CACHE.get(getKey(namespace, dataId, group));
+		return entry == null ? null : entry.propertySources;
+	}
+
+	private static String getKey(String namespace, String dataId, String group) {
+		return String.join(NacosConfigProperties.COMMAS,
+				namespace == null ? "" : namespace,
+				NacosPropertySourceRepository.getMapKey(dataId, group));
+	}
+
+	private static final class Entry {
+
+		private final String digest;
+
+		private final String extension;
+
+		private final List<PropertySource<?>> propertySources;
+
+		private Entry(String digest, String extension,
+				List<PropertySource<?>> propertySources) {
+			this.digest = digest;
+			this.extension = extension;
+			this.propertySources = propertySources;
+		}
+
+	}
+
+}
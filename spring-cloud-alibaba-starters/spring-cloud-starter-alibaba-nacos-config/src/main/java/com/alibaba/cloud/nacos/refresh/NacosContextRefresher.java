@@ -16,7 +16,14 @@
 
 package com.alibaba.cloud.nacos.refresh;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -25,6 +32,9 @@ import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import com.alibaba.cloud.nacos.parser.NacosParsedDataCache;
+import com.alibaba.cloud.nacos.refresh.NacosRefreshScheduler.Change;
 import com.alibaba.nacos.api.config.ConfigService;
 import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
 import com.alibaba.nacos.api.config.listener.Listener;
@@ -32,11 +42,16 @@ import com.alibaba.nacos.api.exception.NacosException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
 import org.springframework.cloud.endpoint.event.RefreshEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
 
 /**
  * On application start up, NacosContextRefresher add nacos listeners to all application
@@ -47,14 +62,17 @@ import org.springframework.context.ApplicationListener;
  * @author pbting
  * @author freeman
  */
-public class NacosContextRefresher
-		implements ApplicationListener<ApplicationReadyEvent>, ApplicationContextAware {
+public class NacosContextRefresher implements ApplicationListener<ApplicationReadyEvent>,
+		ApplicationContextAware, DisposableBean {
 
 	private final static Logger log = LoggerFactory
 			.getLogger(NacosContextRefresher.class);
 
 	private static final AtomicLong REFRESH_COUNT = new AtomicLong(0);
 
+	private static final String[] RELOAD_KEY_PREFIXES = { "spring.cloud.nacos.",
+			"spring.application.name", "spring.profiles.", "spring.config." };
+
 	private NacosConfigProperties nacosConfigProperties;
 
 	private final boolean isRefreshEnabled;
@@ -69,12 +87,38 @@ public class NacosContextRefresher
 
 	private Map<String, Listener> listenerMap = new ConcurrentHashMap<>(16);
 
+	private NacosTargetedRefresher targetedRefresher;
+
+	/**
+	 * Coalesces the changes received in a burst, null to refresh on each change.
+	 */
+	private final NacosRefreshScheduler refreshScheduler;
+
+	/**
+	 * Last known properties of each listened dataId, to compute the changed keys.
+	 */
+	private final Map<String, Map<String, Object>> lastSources = new ConcurrentHashMap<>(
+			16);
+
 	public NacosContextRefresher(NacosConfigManager nacosConfigManager,
 			NacosRefreshHistory refreshHistory) {
 		this.nacosConfigProperties = nacosConfigManager.getNacosConfigProperties();
 		this.nacosRefreshHistory = refreshHistory;
 		this.configService = nacosConfigManager.getConfigService();
 		this.isRefreshEnabled = this.nacosConfigProperties.isRefreshEnabled();
+		this.refreshScheduler = this.nacosConfigProperties.getRefreshQuietPeriod() > 0
+				? new NacosRefreshScheduler(
+						this.nacosConfigProperties.getRefreshQuietPeriod(),
+						this.nacosConfigProperties.getRefreshMaxDelay(), this::refresh,
+						refreshHistory)
+				: null;
+	}
+
+	@Override
+	public void destroy() {
+		if (refreshScheduler != null) {
+			refreshScheduler.shutdown();
+		}
 	}
 
 	@Override
@@ -101,6 +145,10 @@ public class NacosContextRefresher
 					continue;
 				}
 				String dataId = propertySource.getDataId();
+				lastSources.put(
+						NacosPropertySourceRepository.getMapKey(dataId,
+								propertySource.getGroup()),
+						propertySource.getSource());
 				registerNacosListener(propertySource.getGroup(), dataId);
 			}
 		}
@@ -115,8 +163,13 @@ public class NacosContextRefresher
 							String configInfo) {
 						refreshCountIncrement();
 						nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo);
-						applicationContext.publishEvent(
-								new RefreshEvent(this, null, "Refresh Nacos config"));
+						if (refreshScheduler != null) {
+							refreshScheduler.submit(dataId, group, configInfo);
+						}
+						else {
+							refresh(Collections.singletonList(
+									new Change(dataId, group, configInfo)));
+						}
 						if (log.isDebugEnabled()) {
 							log.debug(String.format(
 									"Refresh Nacos config group=%s,dataId=%s,configInfo=%s",
@@ -136,6 +189,137 @@ public class NacosContextRefresher
 		}
 	}
 
+	/**
+	 * Refresh the changed dataIds at once.
+	 * <p>
+	 * If enabled, their property sources are replaced in the environment with the
+	 * content received and only the changed keys are refreshed, instead of reloading
+	 * every dataId. Otherwise, or if they cannot be replaced, the environment is
+	 * reloaded.
+	 */
+	private void refresh(Collection<Change> changes) {
+		if (targetedRefresher == null && !isIncrementalRefreshEnabled()) {
+			publishRefreshEvent();
+			return;
+		}
+		Set<String> changedKeys = new HashSet<>();
+		boolean swapped = isIncrementalRefreshEnabled()
+				&& applicationContext.getEnvironment() instanceof ConfigurableEnvironment;
+		for (Change change : changes) {
+			try {
+				swapped = update(change, changedKeys, swapped);
+			}
+			catch (Exception e) {
+				log.warn(String.format(
+						"refresh of changed keys failed, refresh all, dataId=[%s],group=[%s]",
+						change.getDataId(), change.getGroup()), e);
+				publishRefreshEvent();
+				return;
+			}
+		}
+		if (changedKeys.isEmpty()) {
+			log.info("[Nacos Config] no key changed in {} dataIds", changes.size());
+			return;
+		}
+		try {
+			if (swapped && !requiresReload(changedKeys)) {
+				applicationContext.publishEvent(
+						new EnvironmentChangeEvent(applicationContext, changedKeys));
+				refreshScope(changedKeys);
+				return;
+			}
+			if (targetedRefresher != null && targetedRefresher.refresh(changedKeys)) {
+				return;
+			}
+		}
+		catch (Exception e) {
+			log.warn("refresh of changed keys failed, refresh all", e);
+		}
+		publishRefreshEvent();
+	}
+
+	/**
+	 * Collect the keys changed in a dataId, and replace its property sources in the
+	 * environment if asked.
+	 * @return whether the property sources of all the dataIds so far were replaced
+	 */
+	private boolean update(Change change, Set<String> changedKeys, boolean swap)
+			throws IOException {
+		String dataId = change.getDataId();
+		String group = change.getGroup();
+		String key = NacosPropertySourceRepository.getMapKey(dataId, group);
+		String namespace = nacosConfigProperties.getNamespace();
+		String extension = NacosParsedDataCache.getExtension(namespace, dataId, group);
+		if (extension == null) {
+			extension = NacosDataParserHandler.getInstance().getFileExtension(dataId);
+		}
+		List<PropertySource<?>> before = NacosParsedDataCache
+				.getPropertySources(namespace, dataId, group);
+		// parsed once, a reload of the environment reuses it
+		List<PropertySource<?>> after = NacosParsedDataCache.parseNacosData(namespace,
+				dataId, group, change.getContent(), extension);
+		NacosPropertySource replacement = new NacosPropertySource(after, group, dataId,
+				new Date(), true);
+		Set<String> keys = NacosTargetedRefresher.changedKeys(
+				lastSources.getOrDefault(key, Collections.emptyMap()),
+				replacement.getSource());
+		lastSources.put(key, replacement.getSource());
+		changedKeys.addAll(keys);
+		if (!swap || keys.isEmpty()) {
+			return swap;
+		}
+		boolean swapped = NacosPropertySourceSwapper.swap(
+				((ConfigurableEnvironment) applicationContext.getEnvironment())
+						.getPropertySources(),
+				replacement, before, after);
+		if (swapped) {
+			// what the nacosconfig endpoint shows, and what listeners start from
+			NacosPropertySourceRepository.collectNacosPropertySource(replacement);
+		}
+		return swapped;
+	}
+
+	/**
+	 * Keys that decide which property sources are loaded, only a reload of the
+	 * environment applies them.
+	 */
+	private static boolean requiresReload(Set<String> changedKeys) {
+		for (String key : changedKeys) {
+			for (String prefix : RELOAD_KEY_PREFIXES) {
+				if (key.startsWith(prefix)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void refreshScope(Set<String> changedKeys) {
+		if (targetedRefresher != null) {
+			targetedRefresher.refreshScope(changedKeys);
+			return;
+		}
+		RefreshScope scope = applicationContext.getBeanProvider(RefreshScope.class)
+				.getIfAvailable();
+		if (scope != null) {
+			scope.refreshAll();
+		}
+	}
+
+	private void publishRefreshEvent() {
+		applicationContext
+				.publishEvent(new RefreshEvent(this, null, "Refresh Nacos config"));
+	}
+
+	private boolean isIncrementalRefreshEnabled() {
+		return nacosConfigProperties != null
+				&& nacosConfigProperties.isIncrementalRefreshEnabled();
+	}
+
+	public void setTargetedRefresher(NacosTargetedRefresher targetedRefresher) {
+		this.targetedRefresher = targetedRefresher;
+	}
+
 	public NacosConfigProperties getNacosConfigProperties() {
 		return nacosConfigProperties;
 	}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Replaces the property sources of one changed dataId in the environment, instead of
+ * reloading every property source.
+ * <p>
+ * With bootstrap, the {@link NacosPropertySource} of the dataId is found, possibly
+ * wrapped in a {@link BootstrapPropertySource} or a {@link CompositePropertySource}.
+ * With {@code spring.config.import}, the environment holds the parsed property sources
+ * of the dataId themselves, they are found by identity, see
+ * {@link com.alibaba.cloud.nacos.parser.NacosParsedDataCache}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+final class NacosPropertySourceSwapper {
+
+	private NacosPropertySourceSwapper() {
+
+	}
+
+	/**
+	 * Replace the property sources of a dataId.
+	 * @param propertySources property sources of the environment
+	 * @param replacement new property source of the dataId
+	 * @param before property sources the dataId was parsed into, nullable
+	 * @param after property sources the dataId is parsed into now
+	 * @return false if the dataId was not found, the environment must be reloaded
+	 */
+	static boolean swap(MutablePropertySources propertySources,
+			NacosPropertySource replacement, List<PropertySource<?>> before,
+			List<PropertySource<?>> after) {
+		boolean swapped = false;
+		// backed by a copy on write list, replacing while iterating is safe
+		for (PropertySource<?> source : propertySources) {
+			PropertySource<?> swappedSource = swap(source, replacement);
+			if (swappedSource != null) {
+				propertySources.replace(source.getName(), swappedSource);
+				swapped = true;
+			}
+		}
+		return swapped || swapParsed(propertySources, before, after);
+	}
+
+	/**
+	 * @return the property source with the dataId replaced, null if it does not hold
+	 * the dataId
+	 */
+	private static PropertySource<?> swap(PropertySource<?> source,
+			NacosPropertySource replacement) {
+		if (source instanceof NacosPropertySource) {
+			NacosPropertySource nacosSource = (NacosPropertySource) source;
+			return replacement.getDataId().equals(nacosSource.getDataId())
+					&& replacement.getGroup().equals(nacosSource.getGroup())
+							? replacement : null;
+		}
+		if (source instanceof BootstrapPropertySource) {
+			PropertySource<?> delegate = swap(
+					((BootstrapPropertySource<?>) source).getDelegate(), replacement);
+			return delegate instanceof EnumerablePropertySource
+					? wrap((EnumerablePropertySource<?>) delegate) : null;
+		}
+		if (source instanceof CompositePropertySource) {
+			CompositePropertySource composite = (CompositePropertySource) source;
+			CompositePropertySource copy = new CompositePropertySource(
+					composite.getName());
+			boolean swapped = false;
+			for (PropertySource<?> nested : composite.getPropertySources()) {
+				PropertySource<?> swappedNested = swap(nested, replacement);
+				swapped |= swappedNested != null;
+				copy.addPropertySource(swappedNested != null ? swappedNested : nested);
+			}
+			return swapped ? copy : null;
+		}
+		return null;
+	}
+
+	private static <T> BootstrapPropertySource<T> wrap(
+			EnumerablePropertySource<T> delegate) {
+		return new BootstrapPropertySource<>(delegate);
+	}
+
+	private static boolean swapParsed(MutablePropertySources propertySources,
+			List<PropertySource<?>> before, List<PropertySource<?>> after) {
+		if (before == null || before.isEmpty()) {
+			return false;
+		}
+		Set<String> names = new HashSet<>();
+		for (PropertySource<?> source : before) {
+			if (propertySources.get(source.getName()) != source) {
+				return false;
+			}
+			names.add(source.getName());
+		}
+		// the new property sources take the place of the old ones, in the same order
+		PropertySource<?> next = null;
+		boolean passed = false;
+		for (PropertySource<?> source : propertySources) {
+			if (names.contains(source.getName())) {
+				passed = true;
+				next = null;
+			}
+			else if (passed && next == null) {
+				next = source;
+			}
+		}
+		boolean reversed = before.size() > 1 && propertySources
+				.precedenceOf(before.get(0)) > propertySources
+						.precedenceOf(before.get(before.size() - 1));
+		List<PropertySource<?>> ordered = new ArrayList<>(after);
+		if (reversed) {
+			Collections.reverse(ordered);
+		}
+		names.forEach(propertySources::remove);
+		for (PropertySource<?> source : ordered) {
+			if (next != null) {
+				propertySources.addBefore(next.getName(), source);
+			}
+			else {
+				propertySources.addLast(source);
+			}
+		}
+		return true;
+	}
+
+}
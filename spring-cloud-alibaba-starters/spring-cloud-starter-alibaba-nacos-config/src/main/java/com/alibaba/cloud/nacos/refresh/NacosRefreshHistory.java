@@ -25,6 +25,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -39,6 +40,11 @@ public class NacosRefreshHistory {
 
 	private final LinkedList<Record> records = new LinkedList<>();
 
+	/**
+	 * Changes refreshed together with another change instead of on their own.
+	 */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
 	private final ThreadLocal<DateFormat> DATE_FORMAT = ThreadLocal
 			.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
 
@@ -80,6 +86,14 @@ public class NacosRefreshHistory {
 		return records;
 	}
 
+	public void addCoalescedEvents(int count) {
+		coalescedCount.addAndGet(count);
+	}
+
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
 	private String md5(String data) {
 		if (StringUtils.isEmpty(data)) {
 			return null;
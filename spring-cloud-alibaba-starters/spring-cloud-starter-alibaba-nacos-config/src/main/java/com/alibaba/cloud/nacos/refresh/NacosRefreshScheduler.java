@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the changes of dataIds received in a burst into a single refresh.
+ * <p>
+ * A refresh runs once no change was received for the quiet period, or at the latest the
+ * max delay after the first pending change, so a continuous stream of changes cannot
+ * postpone it forever. Several changes of a dataId are merged into its last content.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosRefreshScheduler {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosRefreshScheduler.class);
+
+	private final long quietPeriodNanos;
+
+	private final long maxDelayNanos;
+
+	private final Consumer<List<Change>> refresh;
+
+	private final NacosRefreshHistory refreshHistory;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private final Map<String, Change> pending = new LinkedHashMap<>();
+
+	private int pendingEvents;
+
+	private long firstPendingAt;
+
+	private ScheduledFuture<?> scheduled;
+
+	/**
+	 * @param quietPeriod time without change before refreshing, in milliseconds
+	 * @param maxDelay max time a change waits for its refresh, in milliseconds
+	 * @param refresh refreshes the changed dataIds
+	 * @param refreshHistory counts the coalesced changes, nullable
+	 */
+	public NacosRefreshScheduler(long quietPeriod, long maxDelay,
+			Consumer<List<Change>> refresh, NacosRefreshHistory refreshHistory) {
+		this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietPeriod));
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelay));
+		this.refresh = refresh;
+		this.refreshHistory = refreshHistory;
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "nacos-config-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * A dataId changed, refresh it with the next batch.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param content new content of the dataId
+	 */
+	public synchronized void submit(String dataId, String group, String content) {
+		if (executor.isShutdown()) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (pending.isEmpty()) {
+			firstPendingAt = now;
+		}
+		pending.put(NacosPropertySourceRepository.getMapKey(dataId, group),
+				new Change(dataId, group, content));
+		pendingEvents++;
+		long deadline = Math.min(now + quietPeriodNanos, firstPendingAt + maxDelayNanos);
+		if (scheduled != null) {
+			scheduled.cancel(false);
+		}
+		scheduled = executor.schedule(this::flush, Math.max(0, deadline - now),
+				TimeUnit.NANOSECONDS);
+	}
+
+	private void flush() {
+		List<Change> changes;
+		int events;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			changes = new ArrayList<>(pending.values());
+			events = pendingEvents;
+			pending.clear();
+			pendingEvents = 0;
+			scheduled = null;
+		}
+		if (events > 1) {
+			log.info("[Nacos Config] {} changes of {} dataIds coalesced in one refresh",
+					events, changes.size());
+			if (refreshHistory != null) {
+				refreshHistory.addCoalescedEvents(events - 1);
+			}
+		}
+		try {
+			refresh.accept(changes);
+		}
+		catch (Exception e) {
+			log.error("[Nacos Config] refresh failed", e);
+		}
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Last content received for a dataId.
+	 */
+	public static final class Change {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String content;
+
+		public Change(String dataId, String group, String content) {
+			this.dataId = dataId;
+			this.group = group;
+			this.content = content;
+		}
+
+		public String getDataId() {
+			return dataId;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		public String getContent() {
+			return content;
+		}
+
+	}
+
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Refresh for {@link RefreshBehavior#SPECIFIC_BEAN}, given the keys changed in one
+ * dataId.
+ * <p>
+ * The environment is refreshed, so {@link SmartConfigurationPropertiesRebinder} rebinds
+ * the {@code @ConfigurationProperties} beans of the changed keys. Then instead of
+ * recreating every {@code @RefreshScope} bean, only the ones that inject a changed key,
+ * through {@code @Value}, their {@code @ConfigurationProperties} prefix or the prefix of
+ * an injected {@code @ConfigurationProperties} bean, are recreated. A refresh scoped
+ * bean whose keys cannot be determined, for instance one using SpEL, reading the
+ * {@link org.springframework.core.env.Environment} or without annotation at all, is
+ * recreated on every change. A key whose value references a changed key through a
+ * placeholder, like {@code app.url=${host}:8080}, is changed as well.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosTargetedRefresher implements EnvironmentAware {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosTargetedRefresher.class);
+
+	private static final String REFRESH_SCOPE_NAME = "refresh";
+
+	private final ObjectProvider<ContextRefresher> contextRefresher;
+
+	private final ObjectProvider<RefreshScope> refreshScope;
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private volatile PropertyKeyTrie refreshScopeKeys;
+
+	private Environment environment;
+
+	public NacosTargetedRefresher(ObjectProvider<ContextRefresher> contextRefresher,
+			ObjectProvider<RefreshScope> refreshScope,
+			ConfigurableListableBeanFactory beanFactory) {
+		this.contextRefresher = contextRefresher;
+		this.refreshScope = refreshScope;
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Refresh the beans affected by the changed keys.
+	 * @param changedKeys keys whose value changed
+	 * @return false if it cannot refresh, a full refresh is needed
+	 */
+	public boolean refresh(Set<String> changedKeys) {
+		ContextRefresher refresher = contextRefresher.getIfAvailable();
+		if (refresher == null) {
+			return false;
+		}
+		refresher.refreshEnvironment();
+		refreshScope(changedKeys);
+		return true;
+	}
+
+	/**
+	 * Recreate the refresh scoped beans affected by the changed keys, once the
+	 * environment is up to date.
+	 * @param changedKeys keys whose value changed
+	 */
+	public void refreshScope(Set<String> changedKeys) {
+		RefreshScope scope = refreshScope.getIfAvailable();
+		if (scope != null) {
+			Set<String> affectedKeys = withReferencingKeys(environment, changedKeys);
+			for (String name : getRefreshScopeKeys().match(affectedKeys)) {
+				scope.refresh(name);
+			}
+		}
+	}
+
+	/**
+	 * Keys added, removed or whose value changed between two versions of a dataId.
+	 * @param before previous properties
+	 * @param after current properties
+	 * @return the changed keys
+	 */
+	static Set<String> changedKeys(Map<String, Object> before,
+			Map<String, Object> after) {
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, Object> entry : after.entrySet()) {
+			if (!Objects.equals(entry.getValue(), before.get(entry.getKey()))) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String key : before.keySet()) {
+			if (!after.containsKey(key)) {
+				changed.add(key);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Add to the changed keys the keys whose raw value references one of them through a
+	 * placeholder, transitively.
+	 * @param environment environment holding the raw values, nullable
+	 * @param changedKeys keys whose value changed
+	 * @return the changed keys and the keys referencing them
+	 */
+	static Set<String> withReferencingKeys(Environment environment,
+			Set<String> changedKeys) {
+		if (!(environment instanceof ConfigurableEnvironment)) {
+			return changedKeys;
+		}
+		// references are read on each change, a change may add or remove some
+		Map<String, Set<String>> referencingKeys = new HashMap<>();
+		for (PropertySource<?> source : ((ConfigurableEnvironment) environment)
+				.getPropertySources()) {
+			if (!(source instanceof EnumerablePropertySource)) {
+				continue;
+			}
+			for (String name : ((EnumerablePropertySource<?>) source)
+					.getPropertyNames()) {
+				Object value = source.getProperty(name);
+				String text = value == null ? null : value.toString();
+				if (text == null || !text.contains("${")) {
+					continue;
+				}
+				Set<String> referenced = new HashSet<>();
+				collectPlaceholders(text, referenced);
+				for (String key : referenced) {
+					referencingKeys.computeIfAbsent(key, k -> new HashSet<>()).add(name);
+				}
+			}
+		}
+		if (referencingKeys.isEmpty()) {
+			return changedKeys;
+		}
+		Set<String> affected = new HashSet<>(changedKeys);
+		Deque<String> pending = new ArrayDeque<>(changedKeys);
+		while (!pending.isEmpty()) {
+			for (String key : referencingKeys.getOrDefault(pending.poll(),
+					Collections.emptySet())) {
+				if (affected.add(key)) {
+					pending.add(key);
+				}
+			}
+		}
+		return affected;
+	}
+
+	private PropertyKeyTrie getRefreshScopeKeys() {
+		PropertyKeyTrie current = this.refreshScopeKeys;
+		if (current == null) {
+			// refresh scoped bean definitions don't change once the context is started
+			current = new PropertyKeyTrie();
+			for (String name : beanFactory.getBeanDefinitionNames()) {
+				BeanDefinition definition = beanFactory.getBeanDefinition(name);
+				if (!REFRESH_SCOPE_NAME.equals(definition.getScope())) {
+					continue;
+				}
+				Set<String> keys = injectedKeys(name, definition);
+				if (keys == null) {
+					current.add("", name);
+					log.debug("Keys of refresh scoped bean {} are unknown, it is "
+							+ "refreshed on every change", name);
+				}
+				else {
+					for (String key : keys) {
+						current.add(key, name);
+					}
+				}
+			}
+			this.refreshScopeKeys = current;
+		}
+		return current;
+	}
+
+	/**
+	 * @return the keys a bean depends on, null if they cannot be determined
+	 */
+	private Set<String> injectedKeys(String name, BeanDefinition definition) {
+		Class<?> type = beanFactory.getType(name);
+		if (type == null) {
+			return null;
+		}
+		InjectedKeys keys = new InjectedKeys();
+		keys.addPrefix(type);
+		ReflectionUtils.doWithFields(type, field -> {
+			keys.addValue(field);
+			keys.addType(field.getType());
+		});
+		ReflectionUtils.doWithMethods(type, method -> {
+			keys.addValue(method);
+			keys.addParameters(method);
+		});
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			keys.addParameters(constructor);
+		}
+		if (definition.getFactoryMethodName() != null) {
+			BeanDefinition merged = beanFactory.getMergedBeanDefinition(name);
+			Method factoryMethod = merged instanceof RootBeanDefinition
+					? ((RootBeanDefinition) merged).getResolvedFactoryMethod() : null;
+			if (factoryMethod == null) {
+				return null;
+			}
+			keys.addPrefix(factoryMethod);
+			keys.addParameters(factoryMethod);
+		}
+		return keys.complete && !keys.keys.isEmpty() ? keys.keys : null;
+	}
+
+	/**
+	 * Collect the keys of the placeholders of an expression, including the nested ones
+	 * and the ones of the default values.
+	 * @param expression {@code @Value} expression
+	 * @param keys collected keys
+	 * @return false if the expression uses SpEL, its keys cannot be determined
+	 */
+	static boolean collectPlaceholders(String expression, Set<String> keys) {
+		if (expression.contains("#{")) {
+			return false;
+		}
+		int start = expression.indexOf("${");
+		while (start >= 0) {
+			int end = closingBrace(expression, start + 2);
+			if (end < 0) {
+				break;
+			}
+			String content = expression.substring(start + 2, end);
+			int separator = defaultSeparator(content);
+			String key = separator < 0 ? content : content.substring(0, separator);
+			if (key.contains("${")) {
+				collectPlaceholders(key, keys);
+			}
+			else {
+				keys.add(key.trim());
+			}
+			if (separator >= 0) {
+				collectPlaceholders(content.substring(separator + 1), keys);
+			}
+			start = expression.indexOf("${", end + 1);
+		}
+		return true;
+	}
+
+	private static int closingBrace(String expression, int from) {
+		int depth = 1;
+		for (int i = from; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (c == '{') {
+				depth++;
+			}
+			else if (c == '}' && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int defaultSeparator(String content) {
+		int depth = 0;
+		for (int i = 0; i < content.length(); i++) {
+			char c = content.charAt(i);
+			if (c == '{') {
+				depth++;
+			}
+			else if (c == '}') {
+				depth--;
+			}
+			else if (c == ':' && depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static final class InjectedKeys {
+
+		private final Set<String> keys = new LinkedHashSet<>();
+
+		private boolean complete = true;
+
+		private void addPrefix(AnnotatedElement element) {
+			ConfigurationProperties annotation = AnnotatedElementUtils
+					.findMergedAnnotation(element, ConfigurationProperties.class);
+			if (annotation != null) {
+				keys.add(annotation.prefix());
+			}
+		}
+
+		private void addValue(AnnotatedElement element) {
+			Value value = element.getAnnotation(Value.class);
+			if (value != null && !collectPlaceholders(value.value(), keys)) {
+				complete = false;
+			}
+		}
+
+		private void addParameters(Executable executable) {
+			for (Parameter parameter : executable.getParameters()) {
+				addValue(parameter);
+				addType(parameter.getType());
+			}
+		}
+
+		/**
+		 * An injected {@code @ConfigurationProperties} bean depends on its prefix, an
+		 * injected environment on any key.
+		 */
+		private void addType(Class<?> type) {
+			if (PropertyResolver.class.isAssignableFrom(type)) {
+				complete = false;
+				return;
+			}
+			addPrefix(type);
+		}
+
+	}
+
+}
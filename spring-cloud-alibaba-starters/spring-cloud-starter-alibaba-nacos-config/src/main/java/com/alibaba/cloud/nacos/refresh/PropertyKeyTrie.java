@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bean names indexed by the property key prefixes they depend on, so that the beans
+ * affected by a set of changed keys are found walking each key once, whatever the number
+ * of beans.
+ * <p>
+ * Keys are split on {@code .} and {@code [}, and compared in their relaxed form
+ * (lower case, without {@code -} nor {@code _}), so that {@code my-app.user-name}
+ * matches {@code myApp.userName}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+final class PropertyKeyTrie {
+
+	private final Node root = new Node();
+
+	/**
+	 * Register a bean affected by the changes of the keys starting with a prefix.
+	 * @param prefix property key prefix, an empty prefix matches every key
+	 * @param beanName name of the bean
+	 */
+	void add(String prefix, String beanName) {
+		Node node = root;
+		for (String segment : segments(prefix)) {
+			node = node.children.computeIfAbsent(segment, key -> new Node());
+		}
+		node.beanNames.add(beanName);
+	}
+
+	/**
+	 * @param keys changed keys
+	 * @return the beans registered with a prefix of one of the keys
+	 */
+	Set<String> match(Collection<String> keys) {
+		Set<String> matched = new LinkedHashSet<>(root.beanNames);
+		for (String key : keys) {
+			Node node = root;
+			for (String segment : segments(key)) {
+				node = node.children.get(segment);
+				if (node == null) {
+					break;
+				}
+				matched.addAll(node.beanNames);
+			}
+		}
+		return matched;
+	}
+
+	boolean isEmpty() {
+		return root.beanNames.isEmpty() && root.children.isEmpty();
+	}
+
+	private static String[] segments(String key) {
+		if (key == null || key.isEmpty()) {
+			return new String[0];
+		}
+		StringBuilder relaxed = new StringBuilder(key.length());
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c == '[') {
+				relaxed.append('.');
+			}
+			else if (c != '-' && c != '_' && c != ']') {
+				relaxed.append(Character.toLowerCase(c));
+			}
+		}
+		return relaxed.toString().split("\\.+");
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> children = new HashMap<>();
+
+		private final Set<String> beanNames = new LinkedHashSet<>();
+
+	}
+
+}
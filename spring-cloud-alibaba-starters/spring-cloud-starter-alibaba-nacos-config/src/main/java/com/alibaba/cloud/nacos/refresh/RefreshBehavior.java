@@ -30,7 +30,8 @@ public enum RefreshBehavior {
 	 */
 	ALL_BEANS,
 	/**
-	 * Refresh specific {@link ConfigurationPropertiesBean} base on change key.
+	 * Refresh specific {@link ConfigurationPropertiesBean} base on change key, and only
+	 * the {@code @RefreshScope} beans injecting a changed key.
 	 */
 	SPECIFIC_BEAN,
 }
@@ -16,22 +16,16 @@
 
 package com.alibaba.cloud.nacos.refresh;
 
-import java.lang.reflect.Field;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.beans.BeansException;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
 import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesBeans;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
 import org.springframework.context.ApplicationContext;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.util.ReflectionUtils;
+import org.springframework.context.ConfigurableApplicationContext;
 
 import static com.alibaba.cloud.nacos.refresh.RefreshBehavior.ALL_BEANS;
 
@@ -53,27 +47,41 @@ import static com.alibaba.cloud.nacos.refresh.RefreshBehavior.ALL_BEANS;
 public class SmartConfigurationPropertiesRebinder
 		extends ConfigurationPropertiesRebinder {
 
-	private Map<String, ConfigurationPropertiesBean> beanMap;
-
 	private ApplicationContext applicationContext;
 
 	private RefreshBehavior refreshBehavior;
 
+	private volatile PropertyKeyTrie prefixes;
+
 	public SmartConfigurationPropertiesRebinder(ConfigurationPropertiesBeans beans) {
 		super(beans);
-		fillBeanMap(beans);
 	}
 
-	@SuppressWarnings("unchecked")
-	private void fillBeanMap(ConfigurationPropertiesBeans beans) {
-		this.beanMap = new HashMap<>();
-		Field field = ReflectionUtils.findField(beans.getClass(), "beans");
-		if (field != null) {
-			field.setAccessible(true);
-			this.beanMap.putAll((Map<String, ConfigurationPropertiesBean>) Optional
-					.ofNullable(ReflectionUtils.getField(field, beans))
-					.orElse(Collections.emptyMap()));
+	/**
+	 * Read from the bean definitions, so that no bean is created and the beans collected
+	 * by {@link ConfigurationPropertiesBeans} aren't read while being created. Built once
+	 * the bean definitions are frozen, they don't change afterwards.
+	 */
+	private PropertyKeyTrie getPrefixes() {
+		PropertyKeyTrie current = this.prefixes;
+		if (current != null) {
+			return current;
+		}
+		current = new PropertyKeyTrie();
+		for (String name : applicationContext
+				.getBeanNamesForAnnotation(ConfigurationProperties.class)) {
+			ConfigurationProperties annotation = applicationContext
+					.findAnnotationOnBean(name, ConfigurationProperties.class);
+			if (annotation != null) {
+				current.add(annotation.prefix(), name);
+			}
 		}
+		if (applicationContext instanceof ConfigurableApplicationContext
+				&& ((ConfigurableApplicationContext) applicationContext).getBeanFactory()
+						.isConfigurationFrozen()) {
+			this.prefixes = current;
+		}
+		return current;
 	}
 
 	@Override
@@ -103,14 +111,12 @@ public class SmartConfigurationPropertiesRebinder
 	}
 
 	private void rebindSpecificBean(EnvironmentChangeEvent event) {
-		Set<String> refreshedSet = new HashSet<>();
-		beanMap.forEach((name, bean) -> event.getKeys().forEach(changeKey -> {
-			String prefix = AnnotationUtils.getValue(bean.getAnnotation()).toString();
-			// prevent multiple refresh one ConfigurationPropertiesBean.
-			if (changeKey.startsWith(prefix) && refreshedSet.add(name)) {
-				rebind(name);
-			}
-		}));
+		Set<String> keys = NacosTargetedRefresher.withReferencingKeys(
+				applicationContext.getEnvironment(), event.getKeys());
+		// each bean is matched once, whatever the number of its changed keys
+		for (String name : getPrefixes().match(keys)) {
+			rebind(name);
+		}
 	}
 
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosConfigPrefetcherTests {
+
+	@Test
+	public void testFetchesConcurrently() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		CountDownLatch inFlight = new CountDownLatch(2);
+		when(configService.getConfig(any(), any(), anyLong())).thenAnswer(invocation -> {
+			inFlight.countDown();
+			// only returns once both fetches are in flight
+			return inFlight.await(5, TimeUnit.SECONDS) ? invocation.getArgument(0)
+					: null;
+		});
+		NacosConfigPrefetcher prefetcher = new NacosConfigPrefetcher(configService,
+				3000, 2);
+		try {
+			prefetcher.prefetch("a.yaml", "DEFAULT_GROUP");
+			prefetcher.prefetch("b.yaml", "DEFAULT_GROUP");
+
+			assertThat(prefetcher.getConfig("a.yaml", "DEFAULT_GROUP"))
+					.isEqualTo("a.yaml");
+			assertThat(prefetcher.getConfig("b.yaml", "DEFAULT_GROUP"))
+					.isEqualTo("b.yaml");
+			verify(configService, times(1)).getConfig(eq("a.yaml"), any(), anyLong());
+		}
+		finally {
+			prefetcher.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailureIsRethrown() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig(any(), any(), anyLong()))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "down"));
+		NacosConfigPrefetcher prefetcher = new NacosConfigPrefetcher(configService,
+				3000, 2);
+		try {
+			prefetcher.prefetch("a.yaml", "DEFAULT_GROUP");
+
+			assertThatThrownBy(() -> prefetcher.getConfig("a.yaml", "DEFAULT_GROUP"))
+					.isInstanceOf(NacosException.class);
+			// not prefetched, fetched on demand
+			assertThatThrownBy(() -> prefetcher.getConfig("b.yaml", "DEFAULT_GROUP"))
+					.isInstanceOf(NacosException.class);
+		}
+		finally {
+			prefetcher.shutdown();
+		}
+	}
+
+}
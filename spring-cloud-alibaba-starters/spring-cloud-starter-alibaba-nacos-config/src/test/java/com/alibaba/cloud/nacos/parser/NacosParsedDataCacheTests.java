@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosParsedDataCacheTests {
+
+	@Test
+	public void testUnchangedContentIsNotParsedAgain() throws Exception {
+		String content = "user:\n  name: hello\n  age: 12";
+
+		List<PropertySource<?>> first = NacosParsedDataCache.parseNacosData(null,
+				"cache-test.yaml", "DEFAULT_GROUP", content, "yaml");
+		List<PropertySource<?>> second = NacosParsedDataCache.parseNacosData(null,
+				"cache-test.yaml", "DEFAULT_GROUP", new String(content), "yaml");
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.get(0).getProperty("user.name")).isEqualTo("hello");
+	}
+
+	@Test
+	public void testChangedContentIsParsed() throws Exception {
+		List<PropertySource<?>> first = NacosParsedDataCache.parseNacosData(null,
+				"cache-test.properties", "DEFAULT_GROUP", "user.name=hello",
+				"properties");
+		List<PropertySource<?>> other = NacosParsedDataCache.parseNacosData(null,
+				"cache-test.properties", "OTHER_GROUP", "user.name=hello",
+				"properties");
+		List<PropertySource<?>> changed = NacosParsedDataCache.parseNacosData(null,
+				"cache-test.properties", "DEFAULT_GROUP", "user.name=world",
+				"properties");
+
+		assertThat(other).isNotSameAs(first);
+		assertThat(changed).isNotSameAs(first);
+		assertThat(changed.get(0).getProperty("user.name")).isEqualTo("world");
+	}
+
+	@Test
+	public void testEmptiedContentReplacesParsedContent() throws Exception {
+		NacosParsedDataCache.parseNacosData(null, "empty-test.properties",
+				"DEFAULT_GROUP", "user.name=hello", "properties");
+
+		assertThat(NacosParsedDataCache.parseNacosData(null, "empty-test.properties",
+				"DEFAULT_GROUP", "", "properties")).isEmpty();
+		assertThat(NacosParsedDataCache.getPropertySources(null,
+				"empty-test.properties", "DEFAULT_GROUP")).isEmpty();
+	}
+
+	@Test
+	public void testNamespacesAreCachedApart() throws Exception {
+		List<PropertySource<?>> dev = NacosParsedDataCache.parseNacosData("dev",
+				"namespace-test.properties", "DEFAULT_GROUP", "user.name=hello",
+				"properties");
+		List<PropertySource<?>> prod = NacosParsedDataCache.parseNacosData("prod",
+				"namespace-test.properties", "DEFAULT_GROUP", "user.name=world",
+				"properties");
+
+		assertThat(NacosParsedDataCache.getPropertySources("dev",
+				"namespace-test.properties", "DEFAULT_GROUP")).isSameAs(dev);
+		assertThat(NacosParsedDataCache.getPropertySources("prod",
+				"namespace-test.properties", "DEFAULT_GROUP")).isSameAs(prod);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.config.listener.Listener;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.endpoint.event.RefreshEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosContextRefresherTests {
+
+	private static final String DATA_ID = "refresher-test.properties";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	@Test
+	public void testChangeSwapsPropertySource() throws Exception {
+		NacosPropertySource source = new NacosPropertySource(
+				parsed("a", "1", "b", "1"), GROUP, DATA_ID, new Date(), true);
+		NacosPropertySourceRepository.collectNacosPropertySource(source);
+		List<Object> events = new CopyOnWriteArrayList<>();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(source);
+		context.addApplicationListener(event -> {
+			if (event instanceof EnvironmentChangeEvent
+					|| event instanceof RefreshEvent) {
+				events.add(event);
+			}
+		});
+		context.refresh();
+
+		ConfigService configService = mock(ConfigService.class);
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setIncrementalRefreshEnabled(true);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		when(configManager.getConfigService()).thenReturn(configService);
+		NacosContextRefresher refresher = new NacosContextRefresher(configManager,
+				new NacosRefreshHistory());
+		refresher.setApplicationContext(context);
+		try {
+			refresher.onApplicationEvent(mock(ApplicationReadyEvent.class));
+			ArgumentCaptor<Listener> listener = ArgumentCaptor.forClass(Listener.class);
+			verify(configService).addListener(eq(DATA_ID), eq(GROUP),
+					listener.capture());
+
+			((AbstractSharedListener) listener.getValue()).innerReceive(DATA_ID, GROUP,
+					"a=2\nb=1");
+
+			assertThat(events).hasSize(1);
+			assertThat(events.get(0)).isInstanceOf(EnvironmentChangeEvent.class);
+			assertThat(((EnvironmentChangeEvent) events.get(0)).getKeys())
+					.containsExactly("a");
+			assertThat(context.getEnvironment().getProperty("a")).isEqualTo("2");
+			assertThat(NacosPropertySourceRepository
+					.getNacosPropertySource(DATA_ID, GROUP).getProperty("a"))
+							.isEqualTo("2");
+		}
+		finally {
+			refresher.destroy();
+			context.close();
+		}
+	}
+
+	private static List<PropertySource<?>> parsed(String key1, String value1,
+			String key2, String value2) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put(key1, value1);
+		properties.put(key2, value2);
+		return Collections.singletonList(new MapPropertySource(DATA_ID, properties));
+	}
+
+}
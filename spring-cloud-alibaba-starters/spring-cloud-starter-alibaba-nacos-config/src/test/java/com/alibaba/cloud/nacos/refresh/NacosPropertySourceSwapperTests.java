@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosPropertySourceSwapperTests {
+
+	@Test
+	public void testSwapBootstrapPropertySource() {
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(new BootstrapPropertySource<>(nacos("a.yaml", "a", "1")));
+		propertySources.addLast(new BootstrapPropertySource<>(nacos("b.yaml", "b", "1")));
+
+		List<PropertySource<?>> after = parsed("a.yaml", "a", "2");
+		assertThat(NacosPropertySourceSwapper.swap(propertySources,
+				new NacosPropertySource(after, "DEFAULT_GROUP", "a.yaml", new Date(),
+						true),
+				null, after)).isTrue();
+
+		assertThat(propertySources.get("bootstrapProperties-a.yaml,DEFAULT_GROUP")
+				.getProperty("a")).isEqualTo("2");
+		assertThat(propertySources.get("bootstrapProperties-b.yaml,DEFAULT_GROUP")
+				.getProperty("b")).isEqualTo("1");
+		assertThat(propertySources.precedenceOf(
+				propertySources.get("bootstrapProperties-a.yaml,DEFAULT_GROUP")))
+						.isZero();
+	}
+
+	@Test
+	public void testSwapInComposite() {
+		CompositePropertySource composite = new CompositePropertySource("NACOS");
+		composite.addPropertySource(nacos("a.yaml", "a", "1"));
+		composite.addPropertySource(nacos("b.yaml", "b", "1"));
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(composite);
+
+		List<PropertySource<?>> after = parsed("b.yaml", "b", "2");
+		assertThat(NacosPropertySourceSwapper.swap(propertySources,
+				new NacosPropertySource(after, "DEFAULT_GROUP", "b.yaml", new Date(),
+						true),
+				null, after)).isTrue();
+
+		assertThat(propertySources.get("NACOS").getProperty("a")).isEqualTo("1");
+		assertThat(propertySources.get("NACOS").getProperty("b")).isEqualTo("2");
+	}
+
+	@Test
+	public void testSwapParsedPropertySources() {
+		List<PropertySource<?>> before = parsed("a.yaml", "a", "1");
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(new MapPropertySource("first",
+				Collections.singletonMap("a", "0")));
+		propertySources.addLast(before.get(0));
+		propertySources.addLast(new MapPropertySource("last",
+				Collections.singletonMap("a", "3")));
+
+		List<PropertySource<?>> after = parsed("a.yaml", "a", "2");
+		assertThat(NacosPropertySourceSwapper.swap(propertySources,
+				new NacosPropertySource(after, "DEFAULT_GROUP", "a.yaml", new Date(),
+						true),
+				before, after)).isTrue();
+
+		assertThat(propertySources.get("a.yaml")).isSameAs(after.get(0));
+		assertThat(propertySources.precedenceOf(after.get(0))).isEqualTo(1);
+	}
+
+	@Test
+	public void testNotFound() {
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(new BootstrapPropertySource<>(nacos("b.yaml", "b", "1")));
+
+		List<PropertySource<?>> after = parsed("a.yaml", "a", "2");
+		assertThat(NacosPropertySourceSwapper.swap(propertySources,
+				new NacosPropertySource(after, "DEFAULT_GROUP", "a.yaml", new Date(),
+						true),
+				parsed("a.yaml", "a", "1"), after)).isFalse();
+	}
+
+	private static NacosPropertySource nacos(String dataId, String key, String value) {
+		return new NacosPropertySource(parsed(dataId, key, value), "DEFAULT_GROUP",
+				dataId, new Date(), true);
+	}
+
+	private static List<PropertySource<?>> parsed(String dataId, String key,
+			String value) {
+		return Collections.singletonList(
+				new MapPropertySource(dataId, Collections.singletonMap(key, value)));
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.refresh.NacosRefreshScheduler.Change;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosRefreshSchedulerTests {
+
+	@Test
+	public void testCoalescesBurst() throws Exception {
+		List<List<Change>> refreshes = new CopyOnWriteArrayList<>();
+		CountDownLatch refreshed = new CountDownLatch(1);
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		NacosRefreshScheduler scheduler = new NacosRefreshScheduler(200, 5000,
+				changes -> {
+					refreshes.add(changes);
+					refreshed.countDown();
+				}, history);
+		try {
+			scheduler.submit("a.yaml", "DEFAULT_GROUP", "a: 1");
+			scheduler.submit("b.yaml", "DEFAULT_GROUP", "b: 1");
+			scheduler.submit("a.yaml", "DEFAULT_GROUP", "a: 2");
+
+			assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+			Thread.sleep(300);
+			assertThat(refreshes).hasSize(1);
+			assertThat(refreshes.get(0)).extracting(Change::getDataId)
+					.containsExactly("a.yaml", "b.yaml");
+			// the last content of a dataId wins
+			assertThat(refreshes.get(0).get(0).getContent()).isEqualTo("a: 2");
+			assertThat(history.getCoalescedCount()).isEqualTo(2);
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testMaxDelayBoundsQuietPeriod() throws Exception {
+		CountDownLatch refreshed = new CountDownLatch(1);
+		NacosRefreshScheduler scheduler = new NacosRefreshScheduler(10000, 100,
+				changes -> refreshed.countDown(), null);
+		try {
+			long start = System.nanoTime();
+			scheduler.submit("a.yaml", "DEFAULT_GROUP", "a: 1");
+
+			assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(System.nanoTime() - start)
+					.isLessThan(TimeUnit.SECONDS.toNanos(2));
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+}
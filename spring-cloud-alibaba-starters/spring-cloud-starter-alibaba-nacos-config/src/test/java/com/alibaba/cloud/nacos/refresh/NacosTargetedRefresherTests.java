@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosTargetedRefresherTests {
+
+	@Test
+	public void testChangedKeys() {
+		Map<String, Object> before = new HashMap<>();
+		before.put("a", "1");
+		before.put("b", "2");
+		before.put("c", "3");
+		Map<String, Object> after = new HashMap<>();
+		after.put("a", "1");
+		after.put("b", "two");
+		after.put("d", "4");
+
+		assertThat(NacosTargetedRefresher.changedKeys(before, after))
+				.containsExactlyInAnyOrder("b", "c", "d");
+	}
+
+	@Test
+	public void testCollectPlaceholders() {
+		Set<String> keys = new LinkedHashSet<>();
+
+		assertThat(NacosTargetedRefresher.collectPlaceholders(
+				"${user.name}-${user.age:${default.age:18}}", keys)).isTrue();
+		assertThat(keys).containsExactly("user.name", "user.age", "default.age");
+		assertThat(NacosTargetedRefresher.collectPlaceholders("#{${a} + 1}", keys))
+				.isFalse();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRefreshScopeMatchesInjectedKeys() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("value", refreshScoped(ValueBean.class));
+		beanFactory.registerBeanDefinition("properties",
+				refreshScoped(PropertiesBean.class));
+		beanFactory.registerBeanDefinition("environment",
+				refreshScoped(EnvironmentBean.class));
+		RefreshScope scope = mock(RefreshScope.class);
+		ObjectProvider<RefreshScope> refreshScope = mock(ObjectProvider.class);
+		when(refreshScope.getIfAvailable()).thenReturn(scope);
+		NacosTargetedRefresher refresher = new NacosTargetedRefresher(
+				mock(ObjectProvider.class), refreshScope, beanFactory);
+
+		refresher.refreshScope(Collections.singleton("user.name"));
+
+		verify(scope).refresh("properties");
+		// its keys are unknown
+		verify(scope).refresh("environment");
+		verify(scope, never()).refresh("value");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRefreshScopeFollowsPlaceholderReferences() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("value", refreshScoped(ValueBean.class));
+		RefreshScope scope = mock(RefreshScope.class);
+		ObjectProvider<RefreshScope> refreshScope = mock(ObjectProvider.class);
+		when(refreshScope.getIfAvailable()).thenReturn(scope);
+		NacosTargetedRefresher refresher = new NacosTargetedRefresher(
+				mock(ObjectProvider.class), refreshScope, beanFactory);
+		StandardEnvironment environment = new StandardEnvironment();
+		Map<String, Object> source = new HashMap<>();
+		source.put("other.name", "${other.host}:8080");
+		source.put("other.host", "${host}");
+		source.put("host", "localhost");
+		environment.getPropertySources().addFirst(new MapPropertySource("test", source));
+		refresher.setEnvironment(environment);
+
+		refresher.refreshScope(Collections.singleton("unrelated"));
+		verify(scope, never()).refresh("value");
+
+		// other.name references other.host, which references host
+		refresher.refreshScope(Collections.singleton("host"));
+		verify(scope).refresh("value");
+	}
+
+	@Test
+	public void testPrefixTrie() {
+		PropertyKeyTrie trie = new PropertyKeyTrie();
+		trie.add("my-app", "app");
+		trie.add("my-app.datasource", "datasource");
+		trie.add("user.name", "user");
+		trie.add("", "any");
+
+		assertThat(trie.match(Collections.singleton("myApp.datasource.url")))
+				.containsExactlyInAnyOrder("app", "datasource", "any");
+		assertThat(trie.match(Arrays.asList("user.name", "user.age")))
+				.containsExactlyInAnyOrder("user", "any");
+		assertThat(trie.match(Collections.singleton("my-application.name")))
+				.containsExactly("any");
+		assertThat(trie.match(Collections.singleton("my-app.list[0].name")))
+				.containsExactlyInAnyOrder("app", "any");
+	}
+
+	private static BeanDefinition refreshScoped(Class<?> type) {
+		RootBeanDefinition definition = new RootBeanDefinition(type);
+		definition.setScope("refresh");
+		return definition;
+	}
+
+	static class ValueBean {
+
+		@Value("${other.name}")
+		private String name;
+
+	}
+
+	@ConfigurationProperties("user")
+	static class UserProperties {
+
+	}
+
+	static class PropertiesBean {
+
+		private final UserProperties properties;
+
+		PropertiesBean(UserProperties properties) {
+			this.properties = properties;
+		}
+
+	}
+
+	static class EnvironmentBean {
+
+		@Autowired
+		private Environment environment;
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos;
+
+/**
+ * Records what happens on the hot paths of discovery and load balancing. Every method
+ * is called inline on the calling thread, implementations must be cheap and must not
+ * throw. The default methods do nothing, see {@link #NOOP}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public interface NacosDiscoveryMetrics {
+
+	/**
+	 * Records nothing, used when no metrics are configured.
+	 */
+	NacosDiscoveryMetrics NOOP = new NacosDiscoveryMetrics() {
+	};
+
+	/**
+	 * A lookup of the instances of a service from Nacos finished.
+	 * @param serviceId id of the service
+	 * @param nanos duration of the lookup
+	 * @param success whether the lookup succeeded
+	 */
+	default void recordInstancesLookup(String serviceId, long nanos, boolean success) {
+	}
+
+	/**
+	 * A lookup of the service names from Nacos finished.
+	 * @param nanos duration of the lookup
+	 * @param success whether the lookup succeeded
+	 */
+	default void recordServicesLookup(long nanos, boolean success) {
+	}
+
+	/**
+	 * Cached instances were returned because Nacos could not be reached.
+	 * @param serviceId id of the service
+	 */
+	default void recordInstancesFallback(String serviceId) {
+	}
+
+	/**
+	 * Cached service names were returned because Nacos could not be reached.
+	 */
+	default void recordServicesFallback() {
+	}
+
+	/**
+	 * The load balancer found no instance to choose.
+	 * @param serviceId id of the service
+	 */
+	default void recordEmptyResponse(String serviceId) {
+	}
+
+	/**
+	 * The load balancer chose an instance outside of the local cluster.
+	 * @param serviceId id of the service
+	 */
+	default void recordCrossCluster(String serviceId) {
+	}
+
+	/**
+	 * {@link com.alibaba.cloud.nacos.discovery.NacosWatch} checked the topology.
+	 * @param changedServices number of services found changed, 0 if nothing changed
+	 */
+	default void recordWatch(int changedServices) {
+	}
+
+}
@@ -111,6 +111,18 @@ public class NacosDiscoveryProperties {
 	 */
 	private long watchDelay = 30000;
 
+	/**
+	 * Also list the service names of the namespace on each watch, so that added or
+	 * removed services trigger a heartbeat. Costs a request to the server per watch.
+	 */
+	private boolean watchServiceNames = false;
+
+	/**
+	 * Page size of fetching service names from nacos server, non-positive means fetching
+	 * all names in one request.
+	 */
+	private int servicesPageSize = 1000;
+
 	/**
 	 * nacos naming log file name.
 	 */
@@ -223,12 +235,109 @@ public class NacosDiscoveryProperties {
 	 */
 	private boolean failureToleranceEnabled;
 
+	/**
+	 * Max age of cached instances returned when failure tolerance is enabled, older
+	 * instances are rejected. Time unit: millisecond. Non-positive means unlimited.
+	 */
+	private long failureToleranceMaxAge = 0;
+
+	/**
+	 * Max number of services whose instances are cached.
+	 */
+	private int cacheMaxEntries = 10000;
+
+	/**
+	 * Cached services that are neither read nor refreshed within this time are evicted.
+	 * Time unit: millisecond.
+	 */
+	private long cacheIdleTimeout = 3600000;
+
+	/**
+	 * Whether to persist cached instances to a local snapshot file and restore them on
+	 * startup.
+	 */
+	private boolean cacheSnapshotEnabled = false;
+
+	/**
+	 * Path of the cache snapshot file, defaults to
+	 * ${user.home}/nacos/naming/spring-cloud/${namespace}/${service}.snapshot.
+	 */
+	private String cacheSnapshotFile;
+
+	/**
+	 * Interval of writing the cache snapshot. Time unit: millisecond.
+	 */
+	private long cacheSnapshotInterval = 30000;
+
+	/**
+	 * Max number of services looked up in parallel by a batch instance lookup.
+	 */
+	private int batchLookupConcurrency = 8;
+
+	/**
+	 * Cached instances refreshed within this time are served by a batch instance lookup
+	 * without asking Nacos. Time unit: millisecond. Non-positive means always ask Nacos.
+	 */
+	private long batchLookupCacheTtl = 0;
+
 	/**
 	 * Throw exceptions during service registration if true, otherwise, log error
 	 * (defaults to true).
 	 */
 	private boolean failFast = true;
 
+	/**
+	 * Register off the startup thread and retry failed registrations with jittered
+	 * exponential backoff.
+	 */
+	private boolean registerAsync = false;
+
+	/**
+	 * Initial backoff of retrying an asynchronous registration. Time unit: millisecond.
+	 */
+	private long registerRetryInitialInterval = 1000;
+
+	/**
+	 * Max backoff of retrying an asynchronous registration. Time unit: millisecond.
+	 */
+	private long registerRetryMaxInterval = 30000;
+
+	/**
+	 * Max attempts of an asynchronous registration, non-positive means retrying until
+	 * registered.
+	 */
+	private int registerRetryMaxAttempts = 0;
+
+	/**
+	 * Whether to mark the instance down, wait for peers to notice and for in-flight
+	 * requests to drain before deregistering on shutdown.
+	 */
+	private boolean gracefulShutdownEnabled = false;
+
+	/**
+	 * Time to wait after marking the instance down, for the change to reach the caches
+	 * of peers. Time unit: millisecond.
+	 */
+	private long gracefulShutdownPropagationWindow = 5000;
+
+	/**
+	 * Max time to wait for in-flight requests to drain after the propagation window.
+	 * Time unit: millisecond.
+	 */
+	private long gracefulShutdownDrainTimeout = 30000;
+
+	/**
+	 * Whether to record Micrometer metrics of discovery and load balancing when a
+	 * MeterRegistry is available.
+	 */
+	private boolean metricsEnabled = true;
+
+	/**
+	 * Max distinct service ids used as a metric tag, the other services are tagged
+	 * "other".
+	 */
+	private int metricsMaxServiceTags = 100;
+
 	@Autowired
 	private InetIPv6Util inetIPv6Util;
 
@@ -486,6 +595,14 @@ public class NacosDiscoveryProperties {
 		this.namingLoadCacheAtStart = namingLoadCacheAtStart;
 	}
 
+	public int getServicesPageSize() {
+		return servicesPageSize;
+	}
+
+	public void setServicesPageSize(int servicesPageSize) {
+		this.servicesPageSize = servicesPageSize;
+	}
+
 	public long getWatchDelay() {
 		return watchDelay;
 	}
@@ -494,6 +611,14 @@ public class NacosDiscoveryProperties {
 		this.watchDelay = watchDelay;
 	}
 
+	public boolean isWatchServiceNames() {
+		return watchServiceNames;
+	}
+
+	public void setWatchServiceNames(boolean watchServiceNames) {
+		this.watchServiceNames = watchServiceNames;
+	}
+
 	public String getGroup() {
 		return group;
 	}
@@ -542,6 +667,143 @@ public class NacosDiscoveryProperties {
 		this.failureToleranceEnabled = failureToleranceEnabled;
 	}
 
+	public long getFailureToleranceMaxAge() {
+		return failureToleranceMaxAge;
+	}
+
+	public void setFailureToleranceMaxAge(long failureToleranceMaxAge) {
+		this.failureToleranceMaxAge = failureToleranceMaxAge;
+	}
+
+	public int getCacheMaxEntries() {
+		return cacheMaxEntries;
+	}
+
+	public void setCacheMaxEntries(int cacheMaxEntries) {
+		this.cacheMaxEntries = cacheMaxEntries;
+	}
+
+	public long getCacheIdleTimeout() {
+		return cacheIdleTimeout;
+	}
+
+	public void setCacheIdleTimeout(long cacheIdleTimeout) {
+		this.cacheIdleTimeout = cacheIdleTimeout;
+	}
+
+	public boolean isCacheSnapshotEnabled() {
+		return cacheSnapshotEnabled;
+	}
+
+	public void setCacheSnapshotEnabled(boolean cacheSnapshotEnabled) {
+		this.cacheSnapshotEnabled = cacheSnapshotEnabled;
+	}
+
+	public String getCacheSnapshotFile() {
+		return cacheSnapshotFile;
+	}
+
+	public void setCacheSnapshotFile(String cacheSnapshotFile) {
+		this.cacheSnapshotFile = cacheSnapshotFile;
+	}
+
+	public long getCacheSnapshotInterval() {
+		return cacheSnapshotInterval;
+	}
+
+	public void setCacheSnapshotInterval(long cacheSnapshotInterval) {
+		this.cacheSnapshotInterval = cacheSnapshotInterval;
+	}
+
+	public int getBatchLookupConcurrency() {
+		return batchLookupConcurrency;
+	}
+
+	public void setBatchLookupConcurrency(int batchLookupConcurrency) {
+		this.batchLookupConcurrency = batchLookupConcurrency;
+	}
+
+	public long getBatchLookupCacheTtl() {
+		return batchLookupCacheTtl;
+	}
+
+	public void setBatchLookupCacheTtl(long batchLookupCacheTtl) {
+		this.batchLookupCacheTtl = batchLookupCacheTtl;
+	}
+
+	public boolean isRegisterAsync() {
+		return registerAsync;
+	}
+
+	public void setRegisterAsync(boolean registerAsync) {
+		this.registerAsync = registerAsync;
+	}
+
+	public long getRegisterRetryInitialInterval() {
+		return registerRetryInitialInterval;
+	}
+
+	public void setRegisterRetryInitialInterval(long registerRetryInitialInterval) {
+		this.registerRetryInitialInterval = registerRetryInitialInterval;
+	}
+
+	public long getRegisterRetryMaxInterval() {
+		return registerRetryMaxInterval;
+	}
+
+	public void setRegisterRetryMaxInterval(long registerRetryMaxInterval) {
+		this.registerRetryMaxInterval = registerRetryMaxInterval;
+	}
+
+	public int getRegisterRetryMaxAttempts() {
+		return registerRetryMaxAttempts;
+	}
+
+	public void setRegisterRetryMaxAttempts(int registerRetryMaxAttempts) {
+		this.registerRetryMaxAttempts = registerRetryMaxAttempts;
+	}
+
+	public boolean isGracefulShutdownEnabled() {
+		return gracefulShutdownEnabled;
+	}
+
+	public void setGracefulShutdownEnabled(boolean gracefulShutdownEnabled) {
+		this.gracefulShutdownEnabled = gracefulShutdownEnabled;
+	}
+
+	public long getGracefulShutdownPropagationWindow() {
+		return gracefulShutdownPropagationWindow;
+	}
+
+	public void setGracefulShutdownPropagationWindow(
+			long gracefulShutdownPropagationWindow) {
+		this.gracefulShutdownPropagationWindow = gracefulShutdownPropagationWindow;
+	}
+
+	public long getGracefulShutdownDrainTimeout() {
+		return gracefulShutdownDrainTimeout;
+	}
+
+	public void setGracefulShutdownDrainTimeout(long gracefulShutdownDrainTimeout) {
+		this.gracefulShutdownDrainTimeout = gracefulShutdownDrainTimeout;
+	}
+
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	public void setMetricsEnabled(boolean metricsEnabled) {
+		this.metricsEnabled = metricsEnabled;
+	}
+
+	public int getMetricsMaxServiceTags() {
+		return metricsMaxServiceTags;
+	}
+
+	public void setMetricsMaxServiceTags(int metricsMaxServiceTags) {
+		this.metricsMaxServiceTags = metricsMaxServiceTags;
+	}
+
 	public boolean isFailFast() {
 		return failFast;
 	}
@@ -17,18 +17,54 @@
 package com.alibaba.cloud.nacos;
 
 import java.net.URI;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
 import org.springframework.cloud.client.DefaultServiceInstance;
 import org.springframework.cloud.client.ServiceInstance;
 
 /**
+ * {@link ServiceInstance} of Nacos.
+ * <p>
+ * When created from a Nacos {@link Instance}, weight, health, cluster and ephemeral are
+ * exposed as typed fields and the metadata map, including the synthetic {@code nacos.*}
+ * keys, is only built on the first {@link #getMetadata()} call.
+ *
  * @author xiaojing
  * @author changjin wei(魏昌进)
  */
 public class NacosServiceInstance implements ServiceInstance {
 
+	/**
+	 * Metadata key of the Nacos instance id.
+	 */
+	public static final String METADATA_INSTANCE_ID = "nacos.instanceId";
+
+	/**
+	 * Metadata key of the instance weight.
+	 */
+	public static final String METADATA_WEIGHT = "nacos.weight";
+
+	/**
+	 * Metadata key of the instance health.
+	 */
+	public static final String METADATA_HEALTHY = "nacos.healthy";
+
+	/**
+	 * Metadata key of the instance cluster.
+	 */
+	public static final String METADATA_CLUSTER = "nacos.cluster";
+
+	/**
+	 * Metadata key of whether the instance is ephemeral.
+	 */
+	public static final String METADATA_EPHEMERAL = "nacos.ephemeral";
+
+	private static final double DEFAULT_WEIGHT = 1.0D;
+
 	private String serviceId;
 
 	private String instanceId;
@@ -39,7 +75,42 @@ public class NacosServiceInstance implements ServiceInstance {
 
 	private boolean secure;
 
-	private Map<String, String> metadata;
+	private volatile Map<String, String> metadata;
+
+	private Instance instance;
+
+	private Double weight;
+
+	private Boolean healthy;
+
+	private String clusterName;
+
+	private Boolean ephemeral;
+
+	public NacosServiceInstance() {
+	}
+
+	/**
+	 * Create a service instance backed by the given Nacos instance. The Nacos instance
+	 * must not be modified afterwards.
+	 * @param instance Nacos instance
+	 * @param serviceId id of service
+	 */
+	public NacosServiceInstance(Instance instance, String serviceId) {
+		this.instance = instance;
+		this.serviceId = serviceId;
+		this.instanceId = instance.getInstanceId();
+		this.host = instance.getIp();
+		this.port = instance.getPort();
+		this.weight = instance.getWeight();
+		this.healthy = instance.isHealthy();
+		this.clusterName = instance.getClusterName();
+		this.ephemeral = instance.isEphemeral();
+		Map<String, String> instanceMetadata = instance.getMetadata();
+		if (instanceMetadata != null && instanceMetadata.containsKey("secure")) {
+			this.secure = Boolean.parseBoolean(instanceMetadata.get("secure"));
+		}
+	}
 
 	@Override
 	public String getServiceId() {
@@ -73,9 +144,85 @@ public class NacosServiceInstance implements ServiceInstance {
 
 	@Override
 	public Map<String, String> getMetadata() {
+		Map<String, String> current = this.metadata;
+		if (current == null && instance != null) {
+			// benign race, concurrent callers build equal maps
+			current = buildMetadata(instance);
+			this.metadata = current;
+		}
+		return current;
+	}
+
+	private static Map<String, String> buildMetadata(Instance instance) {
+		Map<String, String> instanceMetadata = instance.getMetadata();
+		Map<String, String> metadata = new HashMap<>(
+				instanceMetadata == null ? 8 : (instanceMetadata.size() + 5) * 4 / 3 + 1);
+		metadata.put(METADATA_INSTANCE_ID, instance.getInstanceId());
+		metadata.put(METADATA_WEIGHT, String.valueOf(instance.getWeight()));
+		metadata.put(METADATA_HEALTHY, String.valueOf(instance.isHealthy()));
+		metadata.put(METADATA_CLUSTER, String.valueOf(instance.getClusterName()));
+		if (instanceMetadata != null) {
+			metadata.putAll(instanceMetadata);
+		}
+		metadata.put(METADATA_EPHEMERAL, String.valueOf(instance.isEphemeral()));
 		return metadata;
 	}
 
+	/**
+	 * @return weight of the instance, falls back to {@code nacos.weight} metadata
+	 */
+	public double getWeight() {
+		if (weight != null) {
+			return weight;
+		}
+		String value = metadataValue(METADATA_WEIGHT);
+		if (value == null || value.isEmpty()) {
+			return DEFAULT_WEIGHT;
+		}
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			return DEFAULT_WEIGHT;
+		}
+	}
+
+	/**
+	 * @return whether the instance is healthy, falls back to {@code nacos.healthy}
+	 * metadata
+	 */
+	public boolean isHealthy() {
+		if (healthy != null) {
+			return healthy;
+		}
+		String value = metadataValue(METADATA_HEALTHY);
+		return value == null || value.isEmpty() || Boolean.parseBoolean(value);
+	}
+
+	/**
+	 * @return cluster of the instance, falls back to {@code nacos.cluster} metadata
+	 */
+	public String getClusterName() {
+		return clusterName != null ? clusterName : metadataValue(METADATA_CLUSTER);
+	}
+
+	/**
+	 * @return whether the instance is ephemeral, falls back to {@code nacos.ephemeral}
+	 * metadata
+	 */
+	public boolean isEphemeral() {
+		if (ephemeral != null) {
+			return ephemeral;
+		}
+		String value = metadataValue(METADATA_EPHEMERAL);
+		return value == null || value.isEmpty() || Boolean.parseBoolean(value);
+	}
+
+	private String metadataValue(String key) {
+		Map<String, String> current = getMetadata();
+		return current == null ? null : current.get(key);
+	}
+
 	public void setServiceId(String serviceId) {
 		this.serviceId = serviceId;
 	}
@@ -100,6 +247,22 @@ public class NacosServiceInstance implements ServiceInstance {
 		this.metadata = metadata;
 	}
 
+	public void setWeight(double weight) {
+		this.weight = weight;
+	}
+
+	public void setHealthy(boolean healthy) {
+		this.healthy = healthy;
+	}
+
+	public void setClusterName(String clusterName) {
+		this.clusterName = clusterName;
+	}
+
+	public void setEphemeral(boolean ephemeral) {
+		this.ephemeral = ephemeral;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -115,7 +278,21 @@ public class NacosServiceInstance implements ServiceInstance {
 				&& Objects.equals(this.host, that.host)
 				&& this.port == that.port
 				&& this.secure == that.secure
-				&& Objects.equals(this.metadata, that.metadata);
+				&& metadataEquals(that);
+	}
+
+	private boolean metadataEquals(NacosServiceInstance that) {
+		if (this.instance != null && that.instance != null && this.metadata == null
+				&& that.metadata == null) {
+			// compare the sources of the lazy metadata without materializing it
+			return Objects.equals(this.weight, that.weight)
+					&& Objects.equals(this.healthy, that.healthy)
+					&& Objects.equals(this.clusterName, that.clusterName)
+					&& Objects.equals(this.ephemeral, that.ephemeral)
+					&& Objects.equals(this.instance.getMetadata(),
+							that.instance.getMetadata());
+		}
+		return Objects.equals(this.getMetadata(), that.getMetadata());
 	}
 
 	@Override
@@ -16,8 +16,13 @@
 
 package com.alibaba.cloud.nacos;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingMaintainService;
@@ -29,18 +34,44 @@ import static com.alibaba.nacos.api.NacosFactory.createMaintainService;
 import static com.alibaba.nacos.api.NacosFactory.createNamingService;
 
 /**
+ * Pool of {@link NamingService} and {@link NamingMaintainService} instances keyed by
+ * all their client properties, so that services only differing by, for instance, the
+ * context path or the cluster name are not shared.
+ * <p>
+ * {@link #getNamingService()} returns the service of the discovery properties, which is
+ * released by {@link #nacosServiceShutDown()}. Components that talk to other namespaces
+ * {@link #acquireNamingService(Properties) acquire} a service and
+ * {@link #releaseNamingService(Properties) release} it when done; a service is shut down
+ * once its last reference is released. Services are created lazily, outside the lock
+ * of the pool, and only callers of the same key wait for each other.
+ *
  * @author yuhuangbin
+ * @author freeman
  */
 public class NacosServiceManager {
 
 	private static final Logger log = LoggerFactory.getLogger(NacosServiceManager.class);
 
+	private final Map<String, Pooled<NamingService>> namingServices = new ConcurrentHashMap<>();
+
+	private final Map<String, Pooled<NamingMaintainService>> namingMaintainServices = new ConcurrentHashMap<>();
+
 	private NacosDiscoveryProperties nacosDiscoveryProperties;
 
 	private volatile NamingService namingService;
 
 	private volatile NamingMaintainService namingMaintainService;
 
+	/**
+	 * Properties the naming service of {@link #getNamingService()} was acquired with.
+	 */
+	private Properties namingServiceProperties;
+
+	/**
+	 * Properties the naming maintain service was acquired with.
+	 */
+	private Properties namingMaintainServiceProperties;
+
 	public NamingService getNamingService() {
 		if (Objects.isNull(this.namingService)) {
 			buildNamingService(nacosDiscoveryProperties.getNacosProperties());
@@ -63,6 +94,61 @@ public class NacosServiceManager {
 		return namingMaintainService;
 	}
 
+	/**
+	 * Get the naming service of the given properties, creating it if necessary. Every
+	 * call must be paired with a {@link #releaseNamingService(Properties)}.
+	 * @param properties nacos client properties
+	 * @return the naming service
+	 */
+	public NamingService acquireNamingService(Properties properties) {
+		return acquire(namingServices, properties, this::createNewNamingService);
+	}
+
+	/**
+	 * Release a naming service acquired by {@link #acquireNamingService(Properties)}.
+	 * @param properties nacos client properties
+	 */
+	public void releaseNamingService(Properties properties) {
+		NamingService released = release(namingServices, properties);
+		if (released != null) {
+			try {
+				released.shutDown();
+			}
+			catch (NacosException e) {
+				log.error("Nacos namingService shutDown failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Get the naming maintain service of the given properties, creating it if
+	 * necessary. Every call must be paired with a
+	 * {@link #releaseNamingMaintainService(Properties)}.
+	 * @param properties nacos client properties
+	 * @return the naming maintain service
+	 */
+	public NamingMaintainService acquireNamingMaintainService(Properties properties) {
+		return acquire(namingMaintainServices, properties,
+				this::createNamingMaintainService);
+	}
+
+	/**
+	 * Release a naming maintain service acquired by
+	 * {@link #acquireNamingMaintainService(Properties)}.
+	 * @param properties nacos client properties
+	 */
+	public void releaseNamingMaintainService(Properties properties) {
+		NamingMaintainService released = release(namingMaintainServices, properties);
+		if (released != null) {
+			try {
+				released.shutDown();
+			}
+			catch (NacosException e) {
+				log.error("Nacos namingMaintainService shutDown failed", e);
+			}
+		}
+	}
+
 	public boolean isNacosDiscoveryInfoChanged(
 			NacosDiscoveryProperties currentNacosDiscoveryPropertiesCache) {
 		if (Objects.isNull(this.nacosDiscoveryProperties)
@@ -74,9 +160,10 @@ public class NacosServiceManager {
 
 	private NamingMaintainService buildNamingMaintainService(Properties properties) {
 		if (Objects.isNull(namingMaintainService)) {
-			synchronized (NacosServiceManager.class) {
+			synchronized (namingMaintainServices) {
 				if (Objects.isNull(namingMaintainService)) {
-					namingMaintainService = createNamingMaintainService(properties);
+					namingMaintainService = acquireNamingMaintainService(properties);
+					namingMaintainServiceProperties = properties;
 				}
 			}
 		}
@@ -85,9 +172,10 @@ public class NacosServiceManager {
 
 	private NamingService buildNamingService(Properties properties) {
 		if (Objects.isNull(namingService)) {
-			synchronized (NacosServiceManager.class) {
+			synchronized (namingServices) {
 				if (Objects.isNull(namingService)) {
-					namingService = createNewNamingService(properties);
+					namingService = acquireNamingService(properties);
+					namingServiceProperties = properties;
 				}
 			}
 		}
@@ -112,18 +200,132 @@ public class NacosServiceManager {
 		}
 	}
 
+	/**
+	 * Release the services of {@link #getNamingService()} and
+	 * {@link #getNamingMaintainService(Properties)}. They are shut down unless they are
+	 * still acquired by others, which shut them down on their last release.
+	 * @throws NacosException the first failure, after trying all services
+	 */
 	public void nacosServiceShutDown() throws NacosException {
-		if (Objects.nonNull(this.namingService)) {
-			this.namingService.shutDown();
+		Properties namingProperties;
+		synchronized (namingServices) {
+			namingProperties = this.namingServiceProperties;
 			this.namingService = null;
+			this.namingServiceProperties = null;
 		}
-		if (Objects.nonNull(this.namingMaintainService)) {
-			this.namingMaintainService.shutDown();
+		Properties maintainProperties;
+		synchronized (namingMaintainServices) {
+			maintainProperties = this.namingMaintainServiceProperties;
 			this.namingMaintainService = null;
+			this.namingMaintainServiceProperties = null;
+		}
+		List<NacosException> failures = new ArrayList<>();
+		if (namingProperties != null) {
+			NamingService released = release(namingServices, namingProperties);
+			if (released != null) {
+				try {
+					released.shutDown();
+				}
+				catch (NacosException e) {
+					failures.add(e);
+				}
+			}
+		}
+		if (maintainProperties != null) {
+			NamingMaintainService released = release(namingMaintainServices,
+					maintainProperties);
+			if (released != null) {
+				try {
+					released.shutDown();
+				}
+				catch (NacosException e) {
+					failures.add(e);
+				}
+			}
+		}
+		if (!failures.isEmpty()) {
+			NacosException failure = failures.get(0);
+			failures.stream().skip(1).forEach(failure::addSuppressed);
+			throw failure;
 		}
 	}
 
 	public void setNacosDiscoveryProperties(NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
 	}
+
+	private static <T> T acquire(Map<String, Pooled<T>> pool, Properties properties,
+			Function<Properties, T> factory) {
+		String key = keyOf(properties);
+		// compute only counts the reference, the service is created outside of it so
+		// that the network I/O of the client does not hold the lock of the bin
+		Pooled<T> pooled = pool.compute(key, (k, current) -> {
+			Pooled<T> result = current != null ? current : new Pooled<>();
+			result.references++;
+			return result;
+		});
+		try {
+			return pooled.get(properties, factory);
+		}
+		catch (RuntimeException e) {
+			// drop the reference, a later call creates the service again
+			pool.computeIfPresent(key,
+					(k, current) -> current == pooled && --current.references <= 0
+							? null : current);
+			throw e;
+		}
+	}
+
+	private static <T> T release(Map<String, Pooled<T>> pool, Properties properties) {
+		List<T> released = new ArrayList<>(1);
+		pool.computeIfPresent(keyOf(properties), (key, pooled) -> {
+			if (--pooled.references > 0) {
+				return pooled;
+			}
+			if (pooled.service != null) {
+				released.add(pooled.service);
+			}
+			return null;
+		});
+		return released.isEmpty() ? null : released.get(0);
+	}
+
+	static String keyOf(Properties properties) {
+		// sorted, so that equal properties give the same key whatever their order
+		Map<String, String> sorted = new TreeMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			sorted.put(name, properties.getProperty(name));
+		}
+		for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+			sorted.putIfAbsent(String.valueOf(entry.getKey()),
+					String.valueOf(entry.getValue()));
+		}
+		StringBuilder key = new StringBuilder();
+		sorted.forEach((name, value) -> key.append(name).append('=').append(value)
+				.append('\u0000'));
+		return key.toString();
+	}
+
+	private static final class Pooled<T> {
+
+		private volatile T service;
+
+		/**
+		 * Guarded by the lock of the bin of the pool.
+		 */
+		private int references;
+
+		/**
+		 * Create the service on first use, callers of the same key wait for it.
+		 */
+		private synchronized T get(Properties properties,
+				Function<Properties, T> factory) {
+			if (service == null) {
+				service = factory.apply(properties);
+			}
+			return service;
+		}
+
+	}
+
 }
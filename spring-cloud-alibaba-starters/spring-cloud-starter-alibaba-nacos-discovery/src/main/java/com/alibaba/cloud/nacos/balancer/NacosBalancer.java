@@ -16,10 +16,7 @@
 
 package com.alibaba.cloud.nacos.balancer;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import com.alibaba.nacos.client.naming.core.Balancer;
@@ -43,28 +40,15 @@ public class NacosBalancer extends Balancer {
 
 	/**
 	 * Spring Cloud LoadBalancer Choose instance by weight.
+	 * <p>
+	 * Builds a throwaway {@link WeightedInstanceIndex}; callers choosing repeatedly from
+	 * the same list should build the index once and reuse it.
 	 * @param serviceInstances Instance List
 	 * @return the chosen instance
 	 */
 	public static ServiceInstance getHostByRandomWeight3(
 			List<ServiceInstance> serviceInstances) {
-		Map<Instance, ServiceInstance> instanceMap = new HashMap<>();
-		List<Instance> nacosInstance = serviceInstances.stream().map(serviceInstance -> {
-			Map<String, String> metadata = serviceInstance.getMetadata();
-
-			// see
-			// com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery.hostToServiceInstance()
-			Instance instance = new Instance();
-			instance.setIp(serviceInstance.getHost());
-			instance.setPort(serviceInstance.getPort());
-			instance.setWeight(Double.parseDouble(metadata.get("nacos.weight")));
-			instance.setHealthy(Boolean.parseBoolean(metadata.get("nacos.healthy")));
-			instanceMap.put(instance, serviceInstance);
-			return instance;
-		}).collect(Collectors.toList());
-
-		Instance instance = getHostByRandomWeight2(nacosInstance);
-		return instanceMap.get(instance);
+		return WeightedInstanceIndex.of(serviceInstances).choose();
 	}
 
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Immutable weighted random selection index over a list of {@link ServiceInstance}.
+ * <p>
+ * The index is built once per instance list: unhealthy instances and instances with a
+ * non-positive weight are dropped and the remaining weights are accumulated into a
+ * prefix-sum array. {@link #choose()} is then allocation-free and runs in O(log n).
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public final class WeightedInstanceIndex {
+
+	/**
+	 * Metadata key of the instance weight, used for non-Nacos instances.
+	 */
+	public static final String WEIGHT_METADATA_KEY = NacosServiceInstance.METADATA_WEIGHT;
+
+	/**
+	 * Metadata key of the instance health, used for non-Nacos instances.
+	 */
+	public static final String HEALTHY_METADATA_KEY = NacosServiceInstance.METADATA_HEALTHY;
+
+	private static final double DEFAULT_WEIGHT = 1.0D;
+
+	private static final WeightedInstanceIndex EMPTY = new WeightedInstanceIndex(
+			new ServiceInstance[0], new double[0]);
+
+	private final ServiceInstance[] instances;
+
+	private final double[] cumulativeWeights;
+
+	private final double totalWeight;
+
+	private WeightedInstanceIndex(ServiceInstance[] instances,
+			double[] cumulativeWeights) {
+		this.instances = instances;
+		this.cumulativeWeights = cumulativeWeights;
+		this.totalWeight = cumulativeWeights.length == 0 ? 0D
+				: cumulativeWeights[cumulativeWeights.length - 1];
+	}
+
+	/**
+	 * Build an index for the given instances.
+	 * @param serviceInstances instance list
+	 * @return the index, never null
+	 */
+	public static WeightedInstanceIndex of(
+			List<? extends ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return EMPTY;
+		}
+		ServiceInstance[] candidates = new ServiceInstance[serviceInstances.size()];
+		double[] cumulative = new double[serviceInstances.size()];
+		int size = 0;
+		double sum = 0D;
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			if (!isHealthy(serviceInstance)) {
+				continue;
+			}
+			double weight = weightOf(serviceInstance);
+			if (!(weight > 0D) || Double.isInfinite(weight)) {
+				continue;
+			}
+			sum += weight;
+			candidates[size] = serviceInstance;
+			cumulative[size] = sum;
+			size++;
+		}
+		if (size == 0) {
+			return EMPTY;
+		}
+		return new WeightedInstanceIndex(Arrays.copyOf(candidates, size),
+				Arrays.copyOf(cumulative, size));
+	}
+
+	/**
+	 * Choose an instance randomly, proportional to its weight.
+	 * @return the chosen instance, or null if no instance is eligible
+	 */
+	public ServiceInstance choose() {
+		return choose(ThreadLocalRandom.current().nextDouble());
+	}
+
+	/**
+	 * Choose the instance the given point in {@code [0, 1)} falls on.
+	 * @param random a value in {@code [0, 1)}
+	 * @return the chosen instance, or null if no instance is eligible
+	 */
+	ServiceInstance choose(double random) {
+		int size = instances.length;
+		if (size == 0) {
+			return null;
+		}
+		if (size == 1) {
+			return instances[0];
+		}
+		double point = random * totalWeight;
+		int index = Arrays.binarySearch(cumulativeWeights, point);
+		// an exact hit on a prefix sum belongs to the next range
+		index = index < 0 ? -index - 1 : index + 1;
+		return instances[Math.min(index, size - 1)];
+	}
+
+	/**
+	 * @return number of eligible instances
+	 */
+	public int size() {
+		return instances.length;
+	}
+
+	public boolean isEmpty() {
+		return instances.length == 0;
+	}
+
+	/**
+	 * @param position position of an eligible instance, from 0 to {@link #size()}
+	 * @return the eligible instance at the position
+	 */
+	public ServiceInstance getInstance(int position) {
+		return instances[position];
+	}
+
+	/**
+	 * @param position position of an eligible instance, from 0 to {@link #size()}
+	 * @return the weight of the eligible instance at the position
+	 */
+	public double getWeight(int position) {
+		return weightOf(instances[position]);
+	}
+
+	/**
+	 * @param serviceInstance an instance
+	 * @return the Nacos weight of the instance, 1 if it has none
+	 */
+	public static double weightOf(ServiceInstance serviceInstance) {
+		if (serviceInstance instanceof NacosServiceInstance) {
+			return ((NacosServiceInstance) serviceInstance).getWeight();
+		}
+		Map<String, String> metadata = serviceInstance.getMetadata();
+		String weight = metadata == null ? null : metadata.get(WEIGHT_METADATA_KEY);
+		if (StringUtils.isEmpty(weight)) {
+			return DEFAULT_WEIGHT;
+		}
+		try {
+			return Double.parseDouble(weight);
+		}
+		catch (NumberFormatException e) {
+			return DEFAULT_WEIGHT;
+		}
+	}
+
+	static boolean isHealthy(ServiceInstance serviceInstance) {
+		if (serviceInstance instanceof NacosServiceInstance) {
+			return ((NacosServiceInstance) serviceInstance).isHealthy();
+		}
+		Map<String, String> metadata = serviceInstance.getMetadata();
+		String healthy = metadata == null ? null : metadata.get(HEALTHY_METADATA_KEY);
+		return StringUtils.isEmpty(healthy) || Boolean.parseBoolean(healthy);
+	}
+
+}
@@ -16,11 +16,18 @@
 
 package com.alibaba.cloud.nacos.discovery;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,12 +46,60 @@ public class NacosDiscoveryAutoConfiguration {
 		return new NacosDiscoveryProperties();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosServiceCache nacosServiceCache(
+			NacosDiscoveryProperties discoveryProperties,
+			ObjectProvider<NacosServiceCacheSnapshot> snapshot) {
+		NacosServiceCache serviceCache = new NacosServiceCache(
+				discoveryProperties.getCacheMaxEntries(),
+				discoveryProperties.getCacheIdleTimeout());
+		snapshot.ifAvailable(it -> it.restore(serviceCache));
+		ServiceCache.bind(serviceCache);
+		return serviceCache;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.cache-snapshot-enabled",
+			havingValue = "true")
+	public NacosServiceCacheSnapshot nacosServiceCacheSnapshot(
+			NacosDiscoveryProperties discoveryProperties) {
+		return new NacosServiceCacheSnapshot(snapshotFile(discoveryProperties));
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.cache-snapshot-enabled",
+			havingValue = "true")
+	public NacosServiceCacheSnapshotWriter nacosServiceCacheSnapshotWriter(
+			NacosServiceCache serviceCache, NacosServiceCacheSnapshot snapshot,
+			NacosDiscoveryProperties discoveryProperties) {
+		return new NacosServiceCacheSnapshotWriter(serviceCache, snapshot,
+				discoveryProperties.getCacheSnapshotInterval());
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	public NacosServiceDiscovery nacosServiceDiscovery(
 			NacosDiscoveryProperties discoveryProperties,
-			NacosServiceManager nacosServiceManager) {
-		return new NacosServiceDiscovery(discoveryProperties, nacosServiceManager);
+			NacosServiceManager nacosServiceManager,
+			ObjectProvider<NacosDiscoveryMetrics> metrics) {
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(
+				discoveryProperties, nacosServiceManager);
+		metrics.ifAvailable(serviceDiscovery::setMetrics);
+		return serviceDiscovery;
+	}
+
+	private static Path snapshotFile(NacosDiscoveryProperties discoveryProperties) {
+		if (StringUtils.isNotBlank(discoveryProperties.getCacheSnapshotFile())) {
+			return Paths.get(discoveryProperties.getCacheSnapshotFile());
+		}
+		String namespace = StringUtils.isNotBlank(discoveryProperties.getNamespace())
+				? discoveryProperties.getNamespace() : "public";
+		return Paths.get(System.getProperty("user.home"), "nacos", "naming",
+				"spring-cloud", namespace,
+				discoveryProperties.getService() + ".snapshot");
 	}
 
 }
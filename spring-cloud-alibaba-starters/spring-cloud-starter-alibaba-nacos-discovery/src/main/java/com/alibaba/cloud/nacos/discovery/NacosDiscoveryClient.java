@@ -16,10 +16,13 @@
 
 package com.alibaba.cloud.nacos.discovery;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,11 +47,31 @@ public class NacosDiscoveryClient implements DiscoveryClient {
 
 	private NacosServiceDiscovery serviceDiscovery;
 
+	private NacosServiceCache serviceCache;
+
+	private NacosInstancesLoader instancesLoader;
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
 	@Value("${spring.cloud.nacos.discovery.failure-tolerance-enabled:false}")
 	private boolean failureToleranceEnabled;
 
 	public NacosDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
+		this(nacosServiceDiscovery, null);
+	}
+
+	public NacosDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery,
+			NacosServiceCache serviceCache) {
 		this.serviceDiscovery = nacosServiceDiscovery;
+		this.serviceCache = serviceCache != null ? serviceCache
+				: ServiceCache.getDelegate();
+		this.instancesLoader = new NacosInstancesLoader(nacosServiceDiscovery,
+				this.serviceCache);
+	}
+
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+		this.instancesLoader.setMetrics(metrics);
 	}
 
 	@Override
@@ -58,34 +81,54 @@ public class NacosDiscoveryClient implements DiscoveryClient {
 
 	@Override
 	public List<ServiceInstance> getInstances(String serviceId) {
+		List<ServiceInstance> cached = instancesLoader.getCachedInstances(serviceId,
+				false);
+		if (cached != null) {
+			return cached;
+		}
 		try {
-			return Optional.of(serviceDiscovery.getInstances(serviceId))
-					.map(instances -> {
-						ServiceCache.setInstances(serviceId, instances);
-						return instances;
-					}).get();
+			return instancesLoader.getInstances(serviceId);
 		}
 		catch (Exception e) {
-			if (failureToleranceEnabled) {
-				return ServiceCache.getInstances(serviceId);
-			}
-			throw new RuntimeException(
-					"Can not get hosts from nacos server. serviceId: " + serviceId, e);
+			return fallbackInstances(serviceId, e);
 		}
 	}
 
+	/**
+	 * Get the instances of several services at once. Duplicated ids are resolved once,
+	 * services restored from a snapshot or refreshed within
+	 * {@code spring.cloud.nacos.discovery.batch-lookup-cache-ttl} are served from the
+	 * cache and the others are looked up from Nacos in parallel.
+	 * @param serviceIds ids of services
+	 * @return instances by service id, in the order of the given ids
+	 */
+	public Map<String, List<ServiceInstance>> getInstances(Collection<String> serviceIds) {
+		return instancesLoader.getInstances(serviceIds, this::fallbackInstances);
+	}
+
+	private List<ServiceInstance> fallbackInstances(String serviceId, Throwable e) {
+		if (failureToleranceEnabled) {
+			return instancesLoader.getFallbackInstances(serviceId);
+		}
+		throw new RuntimeException(
+				"Can not get hosts from nacos server. serviceId: " + serviceId, e);
+	}
+
 	@Override
 	public List<String> getServices() {
 		try {
 			return Optional.of(serviceDiscovery.getServices()).map(services -> {
-				ServiceCache.setServiceIds(services);
+				serviceCache.setServiceIds(services);
 				return services;
 			}).get();
 		}
 		catch (Exception e) {
 			log.error("get service name from nacos server failed.", e);
-			return failureToleranceEnabled ? ServiceCache.getServiceIds()
-					: Collections.emptyList();
+			if (failureToleranceEnabled) {
+				metrics.recordServicesFallback();
+				return serviceCache.getServiceIds();
+			}
+			return Collections.emptyList();
 		}
 	}
 
@@ -17,9 +17,11 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -47,16 +49,26 @@ public class NacosDiscoveryClientConfiguration {
 
 	@Bean
 	public DiscoveryClient nacosDiscoveryClient(
-			NacosServiceDiscovery nacosServiceDiscovery) {
-		return new NacosDiscoveryClient(nacosServiceDiscovery);
+			NacosServiceDiscovery nacosServiceDiscovery,
+			NacosServiceCache nacosServiceCache,
+			ObjectProvider<NacosDiscoveryMetrics> metrics) {
+		NacosDiscoveryClient discoveryClient = new NacosDiscoveryClient(
+				nacosServiceDiscovery, nacosServiceCache);
+		metrics.ifAvailable(discoveryClient::setMetrics);
+		return discoveryClient;
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.watch.enabled", matchIfMissing = true)
 	public NacosWatch nacosWatch(NacosServiceManager nacosServiceManager,
-			NacosDiscoveryProperties nacosDiscoveryProperties) {
-		return new NacosWatch(nacosServiceManager, nacosDiscoveryProperties);
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosServiceDiscovery nacosServiceDiscovery,
+			ObjectProvider<NacosDiscoveryMetrics> metrics) {
+		NacosWatch nacosWatch = new NacosWatch(nacosServiceManager,
+				nacosDiscoveryProperties, nacosServiceDiscovery);
+		metrics.ifAvailable(nacosWatch::setMetrics);
+		return nacosWatch;
 	}
 
 }
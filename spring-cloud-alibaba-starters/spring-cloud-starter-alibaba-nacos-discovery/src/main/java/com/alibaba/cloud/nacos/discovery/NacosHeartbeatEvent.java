@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+
+/**
+ * {@link HeartbeatEvent} published by {@link NacosWatch} when the topology changed,
+ * carrying the ids of the services that were added, removed or whose instances changed.
+ * Listeners that only understand {@link HeartbeatEvent} keep working unchanged.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosHeartbeatEvent extends HeartbeatEvent {
+
+	private final Set<String> changedServices;
+
+	public NacosHeartbeatEvent(Object source, Object state, Set<String> changedServices) {
+		super(source, state);
+		this.changedServices = Collections.unmodifiableSet(changedServices);
+	}
+
+	/**
+	 * @return ids of the changed services
+	 */
+	public Set<String> getChangedServices() {
+		return changedServices;
+	}
+
+}
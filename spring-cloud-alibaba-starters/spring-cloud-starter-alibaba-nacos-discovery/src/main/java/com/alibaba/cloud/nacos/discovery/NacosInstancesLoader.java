@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Instance lookups shared by {@link NacosDiscoveryClient} and the reactive one: serving
+ * the instances restored from a snapshot while they are refreshed in background, batch
+ * lookups served from the cache within
+ * {@link NacosDiscoveryProperties#getBatchLookupCacheTtl()}, and the cached instances a
+ * client falls back to. Lookups run on the lookup executor of
+ * {@link NacosServiceDiscovery}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosInstancesLoader {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosInstancesLoader.class);
+
+	private final NacosServiceDiscovery serviceDiscovery;
+
+	private final NacosServiceCache serviceCache;
+
+	private final Set<String> refreshingServices = ConcurrentHashMap.newKeySet();
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
+	public NacosInstancesLoader(NacosServiceDiscovery serviceDiscovery,
+			NacosServiceCache serviceCache) {
+		this.serviceDiscovery = serviceDiscovery;
+		this.serviceCache = serviceCache;
+	}
+
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public NacosServiceCache getServiceCache() {
+		return serviceCache;
+	}
+
+	/**
+	 * Look up the instances of a service from Nacos and cache them.
+	 * @param serviceId id of service
+	 * @return instances of the service
+	 * @throws NacosException nacosException
+	 */
+	public List<ServiceInstance> getInstances(String serviceId) throws NacosException {
+		return serviceCache.setInstances(serviceId,
+				serviceDiscovery.getInstances(serviceId));
+	}
+
+	/**
+	 * Get the instances of several services at once. Duplicated ids are resolved once,
+	 * cached services are served from the cache, see
+	 * {@link #getCachedInstances(String, boolean)}, and the others are looked up from
+	 * Nacos in parallel.
+	 * @param serviceIds ids of services
+	 * @param fallback instances of a service whose lookup failed, given the failure
+	 * @return instances by service id, in the order of the given ids
+	 */
+	public Map<String, List<ServiceInstance>> getInstances(Collection<String> serviceIds,
+			BiFunction<String, Throwable, List<ServiceInstance>> fallback) {
+		Map<String, List<ServiceInstance>> result = new LinkedHashMap<>();
+		List<String> misses = new ArrayList<>();
+		for (String serviceId : new LinkedHashSet<>(serviceIds)) {
+			List<ServiceInstance> cached = getCachedInstances(serviceId, true);
+			// reserve the slot to keep the order of the given ids
+			result.put(serviceId, cached);
+			if (cached == null) {
+				misses.add(serviceId);
+			}
+		}
+		if (misses.isEmpty()) {
+			return Collections.unmodifiableMap(result);
+		}
+		serviceDiscovery.getInstancesAsync(misses).forEach((serviceId, lookup) -> {
+			try {
+				result.put(serviceId, serviceCache.setInstances(serviceId, lookup.join()));
+			}
+			catch (CompletionException e) {
+				result.put(serviceId, fallback.apply(serviceId, e.getCause()));
+			}
+		});
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Get the instances of a service restored from a snapshot, refreshing them in
+	 * background, or, for a batch lookup, the ones refreshed within
+	 * {@link NacosDiscoveryProperties#getBatchLookupCacheTtl()}.
+	 * @param serviceId id of service
+	 * @param batch whether the instances are looked up by a batch
+	 * @return cached instances, or null if they must be looked up from Nacos
+	 */
+	public List<ServiceInstance> getCachedInstances(String serviceId, boolean batch) {
+		List<ServiceInstance> restored = serviceCache.getRestoredInstances(serviceId,
+				failureToleranceMaxAge());
+		if (restored != null) {
+			// serve the snapshot while the first live fetch is in flight
+			refreshInBackground(serviceId);
+			return restored;
+		}
+		NacosDiscoveryProperties properties = serviceDiscovery.getDiscoveryProperties();
+		long ttl = properties != null ? properties.getBatchLookupCacheTtl() : 0;
+		return batch && ttl > 0 ? serviceCache.getFreshInstances(serviceId, ttl) : null;
+	}
+
+	/**
+	 * Get the cached instances a client falls back to when Nacos cannot be reached,
+	 * within {@link NacosDiscoveryProperties#getFailureToleranceMaxAge()}.
+	 * @param serviceId id of service
+	 * @return cached instances, empty if none
+	 */
+	public List<ServiceInstance> getFallbackInstances(String serviceId) {
+		metrics.recordInstancesFallback(serviceId);
+		return serviceCache.getInstances(serviceId, failureToleranceMaxAge());
+	}
+
+	private void refreshInBackground(String serviceId) {
+		if (!refreshingServices.add(serviceId)) {
+			return;
+		}
+		// a blocking request to Nacos, keep it on the bounded lookup executor
+		serviceDiscovery.getInstancesInBackground(serviceId)
+				.whenComplete((instances, e) -> {
+					if (e == null) {
+						serviceCache.setInstances(serviceId, instances);
+					}
+					else {
+						log.warn("refresh restored instances of {} from nacos failed.",
+								serviceId, e);
+					}
+					refreshingServices.remove(serviceId);
+				});
+	}
+
+	private long failureToleranceMaxAge() {
+		NacosDiscoveryProperties properties = serviceDiscovery.getDiscoveryProperties();
+		return properties != null ? properties.getFailureToleranceMaxAge() : 0;
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import com.alibaba.cloud.nacos.discovery.reactive.NacosReactiveDiscoveryClient;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Bounded, versioned cache of serviceIds and corresponding instances in Nacos.
+ * <p>
+ * Filled by {@link NacosDiscoveryClient} and {@link NacosReactiveDiscoveryClient}. Every
+ * service keeps a monotonically increasing version that only moves when its instances
+ * change, and the time of its last refresh so failure-tolerance reads can reject stale
+ * entries. Services that are not read or refreshed within the idle timeout are evicted,
+ * and the least recently used services are evicted once the cache exceeds its bound.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosServiceCache {
+
+	/**
+	 * Default max number of cached services.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/**
+	 * Default idle timeout of a cached service, in milliseconds.
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+	private static final long MIN_SWEEP_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+	private static final int EVICTION_SAMPLE_SIZE = 16;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final AtomicLong versionSequence = new AtomicLong();
+
+	private final AtomicLong lastSweep;
+
+	private final ReentrantLock sweepLock = new ReentrantLock();
+
+	/**
+	 * Only used while holding the sweep lock.
+	 */
+	private Iterator<Map.Entry<String, Entry>> evictionCursor;
+
+	private final int maxEntries;
+
+	private final long idleTimeout;
+
+	private final long sweepInterval;
+
+	private final LongSupplier clock;
+
+	private volatile List<String> serviceIds = Collections.emptyList();
+
+	public NacosServiceCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_IDLE_TIMEOUT);
+	}
+
+	public NacosServiceCache(int maxEntries, long idleTimeout) {
+		this(maxEntries, idleTimeout, System::currentTimeMillis);
+	}
+
+	NacosServiceCache(int maxEntries, long idleTimeout, LongSupplier clock) {
+		this.maxEntries = maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES;
+		this.idleTimeout = idleTimeout > 0 ? idleTimeout : DEFAULT_IDLE_TIMEOUT;
+		this.sweepInterval = Math.max(MIN_SWEEP_INTERVAL, this.idleTimeout / 4);
+		this.clock = clock;
+		this.lastSweep = new AtomicLong(clock.getAsLong());
+	}
+
+	/**
+	 * Set instances for specific service. If the instances are equal to the cached ones,
+	 * only the refresh time moves and the cached list is kept.
+	 * @param serviceId service id
+	 * @param instances service instances
+	 * @return the cached list, identical to the previous one if nothing changed
+	 */
+	public List<ServiceInstance> setInstances(String serviceId,
+			List<ServiceInstance> instances) {
+		long now = clock.getAsLong();
+		Entry entry = entries.compute(serviceId, (id, previous) -> {
+			if (previous != null && previous.instances.equals(instances)) {
+				return new Entry(previous.instances, previous.version, now, false);
+			}
+			return new Entry(Collections.unmodifiableList(instances),
+					versionSequence.incrementAndGet(), now, false);
+		});
+		evictIfNecessary(now);
+		return entry.instances;
+	}
+
+	/**
+	 * Restore instances of specific service from a snapshot, only if the service is not
+	 * cached yet.
+	 * @param serviceId service id
+	 * @param instances service instances
+	 * @param lastRefreshTime time the instances were last fetched from Nacos
+	 * @return true if the instances were restored
+	 */
+	public boolean restoreInstances(String serviceId, List<ServiceInstance> instances,
+			long lastRefreshTime) {
+		boolean[] inserted = new boolean[1];
+		entries.computeIfAbsent(serviceId, id -> {
+			inserted[0] = true;
+			Entry restored = new Entry(Collections.unmodifiableList(instances),
+					versionSequence.incrementAndGet(), lastRefreshTime, true);
+			// count as accessed now so that it survives until first use
+			restored.lastAccessTime = clock.getAsLong();
+			return restored;
+		});
+		return inserted[0];
+	}
+
+	/**
+	 * Get instances for specific service.
+	 * @param serviceId service id
+	 * @return service instances
+	 */
+	public List<ServiceInstance> getInstances(String serviceId) {
+		return getInstances(serviceId, 0);
+	}
+
+	/**
+	 * Get instances for specific service if they were refreshed recently enough.
+	 * @param serviceId service id
+	 * @param maxAge max age in milliseconds, non-positive means unlimited
+	 * @return service instances, empty if absent or older than max age
+	 */
+	public List<ServiceInstance> getInstances(String serviceId, long maxAge) {
+		Entry entry = getEntry(serviceId);
+		if (entry == null
+				|| maxAge > 0 && clock.getAsLong() - entry.lastRefreshTime > maxAge) {
+			return Collections.emptyList();
+		}
+		return entry.instances;
+	}
+
+	/**
+	 * Get instances of specific service if they were fetched from Nacos within max age.
+	 * @param serviceId service id
+	 * @param maxAge max age in milliseconds
+	 * @return fresh instances, or null if absent, restored or older than max age
+	 */
+	public List<ServiceInstance> getFreshInstances(String serviceId, long maxAge) {
+		Entry entry = entries.get(serviceId);
+		long now = clock.getAsLong();
+		if (entry == null || entry.restored || now - entry.lastRefreshTime > maxAge) {
+			return null;
+		}
+		entry.lastAccessTime = now;
+		return entry.instances;
+	}
+
+	/**
+	 * Get instances of specific service restored from a snapshot and not fetched from
+	 * Nacos since.
+	 * @param serviceId service id
+	 * @param maxAge max age in milliseconds, non-positive means unlimited
+	 * @return restored instances, or null if not restored or older than max age
+	 */
+	public List<ServiceInstance> getRestoredInstances(String serviceId, long maxAge) {
+		Entry entry = entries.get(serviceId);
+		if (entry == null || !entry.restored
+				|| maxAge > 0 && clock.getAsLong() - entry.lastRefreshTime > maxAge) {
+			return null;
+		}
+		entry.lastAccessTime = clock.getAsLong();
+		return entry.instances;
+	}
+
+	/**
+	 * Get the cache entry of specific service.
+	 * @param serviceId service id
+	 * @return the entry, or null if absent
+	 */
+	public Entry getEntry(String serviceId) {
+		Entry entry = entries.get(serviceId);
+		if (entry != null) {
+			entry.lastAccessTime = clock.getAsLong();
+		}
+		return entry;
+	}
+
+	/**
+	 * Get the cache entry of specific service without counting it as an access.
+	 * @param serviceId service id
+	 * @return the entry, or null if absent
+	 */
+	public Entry peekEntry(String serviceId) {
+		return entries.get(serviceId);
+	}
+
+	/**
+	 * Get the version of specific service.
+	 * @param serviceId service id
+	 * @return the version, 0 if absent
+	 */
+	public long getVersion(String serviceId) {
+		Entry entry = entries.get(serviceId);
+		return entry == null ? 0 : entry.version;
+	}
+
+	/**
+	 * Set all services. The cached list is kept if it holds the same services.
+	 * @param serviceIds all services
+	 * @return true if the set of services changed
+	 */
+	public boolean setServiceIds(List<String> serviceIds) {
+		List<String> previous = this.serviceIds;
+		if (previous.size() == serviceIds.size()
+				&& new HashSet<>(previous).equals(new HashSet<>(serviceIds))) {
+			return false;
+		}
+		this.serviceIds = Collections.unmodifiableList(serviceIds);
+		return true;
+	}
+
+	/**
+	 * Get all services.
+	 * @return all services
+	 */
+	public List<String> getServiceIds() {
+		return serviceIds;
+	}
+
+	/**
+	 * @return ids of the services whose instances are cached
+	 */
+	public List<String> getCachedServiceIds() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * @return number of cached services
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Remove the instances of specific service.
+	 * @param serviceId service id
+	 */
+	public void evict(String serviceId) {
+		entries.remove(serviceId);
+	}
+
+	private void evictIfNecessary(long now) {
+		long last = lastSweep.get();
+		if (entries.size() <= maxEntries && now - last < sweepInterval) {
+			return;
+		}
+		if (!sweepLock.tryLock()) {
+			// another thread is sweeping
+			return;
+		}
+		try {
+			if (now - last >= sweepInterval && lastSweep.compareAndSet(last, now)) {
+				entries.values()
+						.removeIf(entry -> now - entry.lastAccessTime > idleTimeout);
+			}
+			for (int excess = entries.size() - maxEntries; excess > 0; excess--) {
+				evictLeastRecentlyAccessed();
+			}
+		}
+		finally {
+			sweepLock.unlock();
+		}
+	}
+
+	/**
+	 * Evict the least recently accessed of a few services taken from a cursor that walks
+	 * around the cache, so that one eviction does not need to look at every service.
+	 */
+	private void evictLeastRecentlyAccessed() {
+		Map.Entry<String, Entry> oldest = null;
+		for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+			if (evictionCursor == null || !evictionCursor.hasNext()) {
+				evictionCursor = entries.entrySet().iterator();
+				if (!evictionCursor.hasNext()) {
+					break;
+				}
+			}
+			Map.Entry<String, Entry> candidate = evictionCursor.next();
+			if (oldest == null || candidate.getValue().lastAccessTime < oldest
+					.getValue().lastAccessTime) {
+				oldest = candidate;
+			}
+		}
+		if (oldest != null) {
+			entries.remove(oldest.getKey(), oldest.getValue());
+		}
+	}
+
+	/**
+	 * Cached instances of one service.
+	 */
+	public static final class Entry {
+
+		private final List<ServiceInstance> instances;
+
+		private final long version;
+
+		private final long lastRefreshTime;
+
+		private final boolean restored;
+
+		private volatile long lastAccessTime;
+
+		private Entry(List<ServiceInstance> instances, long version,
+				long lastRefreshTime, boolean restored) {
+			this.instances = instances;
+			this.version = version;
+			this.lastRefreshTime = lastRefreshTime;
+			this.restored = restored;
+			this.lastAccessTime = lastRefreshTime;
+		}
+
+		public List<ServiceInstance> getInstances() {
+			return instances;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public long getLastRefreshTime() {
+			return lastRefreshTime;
+		}
+
+		public long getLastAccessTime() {
+			return lastAccessTime;
+		}
+
+		/**
+		 * @return true if the instances come from a snapshot and were not fetched from
+		 * Nacos since startup
+		 */
+		public boolean isRestored() {
+			return restored;
+		}
+
+	}
+
+}
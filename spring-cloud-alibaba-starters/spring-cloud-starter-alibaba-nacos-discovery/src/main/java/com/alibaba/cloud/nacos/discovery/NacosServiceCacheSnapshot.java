@@ -0,0 +1,299 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Local file snapshot of a {@link NacosServiceCache}.
+ * <p>
+ * The snapshot is a compact binary file holding the service ids and the cached instances
+ * of every service. It is written to a temporary file and atomically renamed, so readers
+ * never observe a partially written snapshot. Restored instances let the discovery
+ * clients answer immediately after a restart, even while Nacos is unreachable.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosServiceCacheSnapshot {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServiceCacheSnapshot.class);
+
+	private static final int MAGIC = 0x4E534353;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path file;
+
+	public NacosServiceCacheSnapshot(Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Write the content of the cache to the snapshot file.
+	 * @param serviceCache cache to persist
+	 * @throws IOException if the snapshot can not be written
+	 */
+	public void save(NacosServiceCache serviceCache) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		if (dir != null) {
+			Files.createDirectories(dir);
+		}
+		Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				write(serviceCache, out);
+			}
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Load the snapshot file into the cache. Services already present in the cache are
+	 * left untouched.
+	 * @param serviceCache cache to fill
+	 * @return number of restored services, 0 if there is no usable snapshot
+	 */
+	public int restore(NacosServiceCache serviceCache) {
+		if (!Files.isRegularFile(file)) {
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file)))) {
+			return read(in, Files.size(file), serviceCache);
+		}
+		catch (Exception e) {
+			log.warn("restore nacos service cache from {} failed, ignore it.", file, e);
+			return 0;
+		}
+	}
+
+	void write(NacosServiceCache serviceCache, OutputStream output) throws IOException {
+		DataOutputStream out = output instanceof DataOutputStream
+				? (DataOutputStream) output : new DataOutputStream(output);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		List<String> serviceIds = serviceCache.getServiceIds();
+		out.writeInt(serviceIds.size());
+		for (String serviceId : serviceIds) {
+			writeString(out, serviceId);
+		}
+		List<String> cached = serviceCache.getCachedServiceIds();
+		List<NacosServiceCache.Entry> entries = new ArrayList<>(cached.size());
+		List<String> entryIds = new ArrayList<>(cached.size());
+		for (String serviceId : cached) {
+			NacosServiceCache.Entry entry = serviceCache.peekEntry(serviceId);
+			if (entry != null) {
+				entryIds.add(serviceId);
+				entries.add(entry);
+			}
+		}
+		out.writeInt(entries.size());
+		for (int i = 0; i < entries.size(); i++) {
+			NacosServiceCache.Entry entry = entries.get(i);
+			writeString(out, entryIds.get(i));
+			out.writeLong(entry.getLastRefreshTime());
+			out.writeInt(entry.getInstances().size());
+			for (ServiceInstance instance : entry.getInstances()) {
+				writeString(out, instance.getInstanceId());
+				writeString(out, instance.getHost());
+				out.writeInt(instance.getPort());
+				out.writeBoolean(instance.isSecure());
+				Map<String, String> metadata = instance.getMetadata();
+				if (metadata == null) {
+					out.writeInt(-1);
+					continue;
+				}
+				out.writeInt(metadata.size());
+				for (Map.Entry<String, String> kv : metadata.entrySet()) {
+					writeString(out, kv.getKey());
+					writeString(out, kv.getValue());
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * @param size number of bytes of the snapshot, every count and length read is
+	 * checked against the bytes left so that a corrupt file cannot allocate more
+	 */
+	int read(InputStream input, long size, NacosServiceCache serviceCache)
+			throws IOException {
+		SnapshotInput in = new SnapshotInput(input instanceof DataInputStream
+				? (DataInputStream) input : new DataInputStream(input), size);
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+			log.warn("unrecognized nacos service cache snapshot {}, ignore it.", file);
+			return 0;
+		}
+		int serviceCount = in.readCount(4);
+		List<String> serviceIds = new ArrayList<>(serviceCount);
+		for (int i = 0; i < serviceCount; i++) {
+			serviceIds.add(in.readString());
+		}
+		if (serviceCache.getServiceIds().isEmpty()) {
+			serviceCache.setServiceIds(serviceIds);
+		}
+		// service id, refresh time and instance count
+		int entryCount = in.readCount(16);
+		int restored = 0;
+		for (int i = 0; i < entryCount; i++) {
+			String serviceId = in.readString();
+			long lastRefreshTime = in.readLong();
+			// instance id, host, port, secure and metadata size
+			int instanceCount = in.readCount(17);
+			List<ServiceInstance> instances = new ArrayList<>(instanceCount);
+			for (int j = 0; j < instanceCount; j++) {
+				NacosServiceInstance instance = new NacosServiceInstance();
+				instance.setServiceId(serviceId);
+				instance.setInstanceId(in.readString());
+				instance.setHost(in.readString());
+				instance.setPort(in.readInt());
+				instance.setSecure(in.readBoolean());
+				int metadataSize = in.readInt();
+				if (metadataSize >= 0) {
+					in.checkCount(metadataSize, 8);
+					Map<String, String> metadata = new HashMap<>(
+							metadataSize * 4 / 3 + 1);
+					for (int k = 0; k < metadataSize; k++) {
+						metadata.put(in.readString(), in.readString());
+					}
+					instance.setMetadata(metadata);
+				}
+				instances.add(instance);
+			}
+			if (serviceCache.restoreInstances(serviceId, instances, lastRefreshTime)) {
+				restored++;
+			}
+		}
+		return restored;
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads the snapshot, keeping track of the bytes left.
+	 */
+	private static final class SnapshotInput {
+
+		private final DataInputStream in;
+
+		private long remaining;
+
+		private SnapshotInput(DataInputStream in, long size) {
+			this.in = in;
+			this.remaining = size;
+		}
+
+		private int readInt() throws IOException {
+			consume(4);
+			return in.readInt();
+		}
+
+		private long readLong() throws IOException {
+			consume(8);
+			return in.readLong();
+		}
+
+		private boolean readBoolean() throws IOException {
+			consume(1);
+			return in.readBoolean();
+		}
+
+		/**
+		 * Read a count of elements taking at least the given bytes each.
+		 */
+		private int readCount(int minBytes) throws IOException {
+			int count = readInt();
+			checkCount(count, minBytes);
+			return count;
+		}
+
+		private void checkCount(int count, int minBytes) throws IOException {
+			if (count < 0 || (long) count * minBytes > remaining) {
+				throw new IOException("corrupt snapshot, count " + count + " exceeds the "
+						+ remaining + " bytes left");
+			}
+		}
+
+		private String readString() throws IOException {
+			int length = readInt();
+			if (length < 0) {
+				return null;
+			}
+			consume(length);
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private void consume(long bytes) throws IOException {
+			if (bytes > remaining) {
+				throw new IOException("corrupt snapshot, " + bytes + " bytes read with "
+						+ remaining + " bytes left");
+			}
+			remaining -= bytes;
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Periodically writes the {@link NacosServiceCache} to its
+ * {@link NacosServiceCacheSnapshot}, and once more on shutdown.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosServiceCacheSnapshotWriter implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServiceCacheSnapshotWriter.class);
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private final NacosServiceCache serviceCache;
+
+	private final NacosServiceCacheSnapshot snapshot;
+
+	private final long interval;
+
+	private ThreadPoolTaskScheduler taskScheduler;
+
+	private ScheduledFuture<?> writeFuture;
+
+	public NacosServiceCacheSnapshotWriter(NacosServiceCache serviceCache,
+			NacosServiceCacheSnapshot snapshot, long interval) {
+		this.serviceCache = serviceCache;
+		this.snapshot = snapshot;
+		this.interval = interval;
+	}
+
+	@Override
+	public void start() {
+		if (this.running.compareAndSet(false, true) && interval > 0) {
+			this.taskScheduler = new ThreadPoolTaskScheduler();
+			this.taskScheduler.setBeanName("Nacos-Cache-Snapshot-Task-Scheduler");
+			this.taskScheduler.setDaemon(true);
+			this.taskScheduler.initialize();
+			this.writeFuture = this.taskScheduler.scheduleWithFixedDelay(this::write,
+					interval);
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (this.running.compareAndSet(true, false)) {
+			if (this.writeFuture != null) {
+				this.writeFuture.cancel(false);
+				this.taskScheduler.shutdown();
+			}
+			write();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running.get();
+	}
+
+	/**
+	 * Write the snapshot now, errors are logged and swallowed.
+	 */
+	public void write() {
+		try {
+			snapshot.save(serviceCache);
+		}
+		catch (Exception e) {
+			log.warn("write nacos service cache snapshot to {} failed.",
+					snapshot.getFile(), e);
+		}
+	}
+
+}
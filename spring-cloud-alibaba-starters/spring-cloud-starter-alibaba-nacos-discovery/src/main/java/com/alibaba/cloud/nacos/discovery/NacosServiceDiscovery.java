@@ -17,10 +17,23 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceInstance;
 import com.alibaba.cloud.nacos.NacosServiceManager;
@@ -41,12 +54,24 @@ public class NacosServiceDiscovery {
 
 	private NacosServiceManager nacosServiceManager;
 
+	private volatile ExecutorService lookupExecutor;
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
 	public NacosServiceDiscovery(NacosDiscoveryProperties discoveryProperties,
 			NacosServiceManager nacosServiceManager) {
 		this.discoveryProperties = discoveryProperties;
 		this.nacosServiceManager = nacosServiceManager;
 	}
 
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public NacosDiscoveryProperties getDiscoveryProperties() {
+		return discoveryProperties;
+	}
+
 	/**
 	 * Return all instances for the given service.
 	 * @param serviceId id of service
@@ -55,9 +80,95 @@ public class NacosServiceDiscovery {
 	 */
 	public List<ServiceInstance> getInstances(String serviceId) throws NacosException {
 		String group = discoveryProperties.getGroup();
-		List<Instance> instances = namingService().selectInstances(serviceId, group,
-				true);
-		return hostToServiceInstanceList(instances, serviceId);
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			List<Instance> instances = namingService().selectInstances(serviceId, group,
+					true);
+			success = true;
+			return hostToServiceInstanceList(instances, serviceId);
+		}
+		finally {
+			metrics.recordInstancesLookup(serviceId, System.nanoTime() - start, success);
+		}
+	}
+
+	/**
+	 * Return all instances for each of the given services. Duplicated ids are looked up
+	 * once and the lookups run in parallel, at most
+	 * {@link NacosDiscoveryProperties#getBatchLookupConcurrency()} at a time.
+	 * @param serviceIds ids of services
+	 * @return instances by service id, in the order of the given ids
+	 * @throws NacosException the failure of the first failed lookup
+	 */
+	public Map<String, List<ServiceInstance>> getInstances(Collection<String> serviceIds)
+			throws NacosException {
+		Map<String, CompletableFuture<List<ServiceInstance>>> lookups = getInstancesAsync(
+				serviceIds);
+		Map<String, List<ServiceInstance>> result = new LinkedHashMap<>(
+				lookups.size() * 4 / 3 + 1);
+		for (Map.Entry<String, CompletableFuture<List<ServiceInstance>>> lookup : lookups
+				.entrySet()) {
+			try {
+				result.put(lookup.getKey(), lookup.getValue().join());
+			}
+			catch (CompletionException e) {
+				if (e.getCause() instanceof NacosException) {
+					throw (NacosException) e.getCause();
+				}
+				throw new NacosException(NacosException.SERVER_ERROR, e.getCause());
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Start looking up the instances of each of the given services, see
+	 * {@link #getInstances(Collection)}. Every future completes exceptionally with the
+	 * failure of its own lookup.
+	 * @param serviceIds ids of services
+	 * @return pending lookups by service id, in the order of the given ids
+	 */
+	public Map<String, CompletableFuture<List<ServiceInstance>>> getInstancesAsync(
+			Collection<String> serviceIds) {
+		Collection<String> distinct = new LinkedHashSet<>(serviceIds);
+		Map<String, CompletableFuture<List<ServiceInstance>>> lookups = new LinkedHashMap<>(
+				distinct.size() * 4 / 3 + 1);
+		if (distinct.size() == 1) {
+			// no need to hand a single lookup over to another thread
+			String serviceId = distinct.iterator().next();
+			CompletableFuture<List<ServiceInstance>> lookup = new CompletableFuture<>();
+			try {
+				lookup.complete(getInstances(serviceId));
+			}
+			catch (Exception e) {
+				lookup.completeExceptionally(e);
+			}
+			lookups.put(serviceId, lookup);
+			return lookups;
+		}
+		for (String serviceId : distinct) {
+			lookups.put(serviceId, getInstancesInBackground(serviceId));
+		}
+		return lookups;
+	}
+
+	/**
+	 * Look up the instances of a service on the lookup executor, which runs at most
+	 * {@link NacosDiscoveryProperties#getBatchLookupConcurrency()} lookups at a time.
+	 * @param serviceId id of service
+	 * @return pending lookup
+	 */
+	public CompletableFuture<List<ServiceInstance>> getInstancesInBackground(
+			String serviceId) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return getInstances(serviceId);
+			}
+			catch (NacosException e) {
+				throw new CompletionException(e);
+			}
+		}, lookupExecutor());
 	}
 
 	/**
@@ -66,10 +177,42 @@ public class NacosServiceDiscovery {
 	 * @throws NacosException nacosException
 	 */
 	public List<String> getServices() throws NacosException {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			List<String> services = lookupServices();
+			success = true;
+			return services;
+		}
+		finally {
+			metrics.recordServicesLookup(System.nanoTime() - start, success);
+		}
+	}
+
+	private List<String> lookupServices() throws NacosException {
 		String group = discoveryProperties.getGroup();
-		ListView<String> services = namingService().getServicesOfServer(1,
-				Integer.MAX_VALUE, group);
-		return services.getData();
+		int pageSize = discoveryProperties.getServicesPageSize();
+		if (pageSize <= 0) {
+			ListView<String> services = namingService().getServicesOfServer(1,
+					Integer.MAX_VALUE, group);
+			return services.getData();
+		}
+		// page through the names so that a large namespace is not one huge response
+		Set<String> services = new LinkedHashSet<>();
+		for (int pageNo = 1;; pageNo++) {
+			ListView<String> page = namingService().getServicesOfServer(pageNo, pageSize,
+					group);
+			List<String> data = page == null ? null : page.getData();
+			if (data == null || data.isEmpty()) {
+				break;
+			}
+			services.addAll(data);
+			if (data.size() < pageSize
+					|| page.getCount() > 0 && services.size() >= page.getCount()) {
+				break;
+			}
+		}
+		return new ArrayList<>(services);
 	}
 
 	public static List<ServiceInstance> hostToServiceInstanceList(
@@ -89,32 +232,46 @@ public class NacosServiceDiscovery {
 		if (instance == null || !instance.isEnabled() || !instance.isHealthy()) {
 			return null;
 		}
-		NacosServiceInstance nacosServiceInstance = new NacosServiceInstance();
-		nacosServiceInstance.setHost(instance.getIp());
-		nacosServiceInstance.setPort(instance.getPort());
-		nacosServiceInstance.setServiceId(serviceId);
-		nacosServiceInstance.setInstanceId(instance.getInstanceId());
-
-		Map<String, String> metadata = new HashMap<>();
-		metadata.put("nacos.instanceId", instance.getInstanceId());
-		metadata.put("nacos.weight", instance.getWeight() + "");
-		metadata.put("nacos.healthy", instance.isHealthy() + "");
-		metadata.put("nacos.cluster", instance.getClusterName() + "");
-		if (instance.getMetadata() != null) {
-			metadata.putAll(instance.getMetadata());
-		}
-		metadata.put("nacos.ephemeral", String.valueOf(instance.isEphemeral()));
-		nacosServiceInstance.setMetadata(metadata);
+		NacosServiceInstance nacosServiceInstance = new NacosServiceInstance(instance,
+				serviceId);
+		return nacosServiceInstance;
+	}
 
-		if (metadata.containsKey("secure")) {
-			boolean secure = Boolean.parseBoolean(metadata.get("secure"));
-			nacosServiceInstance.setSecure(secure);
+	private ExecutorService lookupExecutor() {
+		ExecutorService executor = lookupExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = lookupExecutor;
+				if (executor == null) {
+					int concurrency = Math.max(1,
+							discoveryProperties.getBatchLookupConcurrency());
+					ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency,
+							concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+							new LookupThreadFactory());
+					pool.allowCoreThreadTimeOut(true);
+					lookupExecutor = executor = pool;
+				}
+			}
 		}
-		return nacosServiceInstance;
+		return executor;
 	}
 
 	private NamingService namingService() {
 		return nacosServiceManager.getNamingService();
 	}
 
+	private static final class LookupThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger index = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable,
+					"nacos-discovery-lookup-" + index.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
 }
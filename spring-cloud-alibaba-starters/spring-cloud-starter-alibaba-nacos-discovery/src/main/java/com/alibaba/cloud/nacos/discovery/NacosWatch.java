@@ -17,21 +17,31 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosLocalInstanceChangedEvent;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.listener.Event;
 import com.alibaba.nacos.api.naming.listener.EventListener;
 import com.alibaba.nacos.api.naming.listener.NamingEvent;
 import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import com.alibaba.nacos.api.naming.utils.NamingUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,10 +78,33 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 
 	private final ThreadPoolTaskScheduler taskScheduler;
 
+	private final NacosServiceDiscovery serviceDiscovery;
+
+	private volatile Set<String> lastServices;
+
+	private volatile Map<String, Long> fingerprints = Collections.emptyMap();
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
 	public NacosWatch(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties properties) {
+		this(nacosServiceManager, properties, (NacosServiceDiscovery) null);
+	}
+
+	/**
+	 * With a {@link NacosServiceDiscovery}, a {@link NacosHeartbeatEvent} is only
+	 * published when the instances of a subscribed service changed since the last
+	 * watch, or, with {@code spring.cloud.nacos.discovery.watch-service-names=true},
+	 * when services were added or removed.
+	 * @param nacosServiceManager nacos service manager
+	 * @param properties nacos discovery properties
+	 * @param serviceDiscovery service discovery used to detect changes, nullable
+	 */
+	public NacosWatch(NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties properties, NacosServiceDiscovery serviceDiscovery) {
 		this.nacosServiceManager = nacosServiceManager;
 		this.properties = properties;
+		this.serviceDiscovery = serviceDiscovery;
 		this.taskScheduler = getTaskScheduler();
 	}
 
@@ -83,6 +116,7 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 		this.properties = properties;
 		this.taskScheduler = taskScheduler.stream().findAny()
 				.orElseGet(NacosWatch::getTaskScheduler);
+		this.serviceDiscovery = null;
 	}
 
 	private static ThreadPoolTaskScheduler getTaskScheduler() {
@@ -92,6 +126,10 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 		return taskScheduler;
 	}
 
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
 		this.publisher = publisher;
@@ -120,9 +158,10 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 										.getInstances();
 								Optional<Instance> instanceOptional = selectCurrentInstance(
 										instances);
-								instanceOptional.ifPresent(currentInstance -> {
-									resetIfNeeded(currentInstance);
-								});
+								if (instanceOptional.isPresent()) {
+									resetIfNeeded(instanceOptional.get());
+								}
+								publishLocalInstance(instanceOptional.orElse(null));
 							}
 						}
 					});
@@ -145,6 +184,12 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 		return String.join(":", properties.getService(), properties.getGroup());
 	}
 
+	private void publishLocalInstance(Instance instance) {
+		if (publisher != null) {
+			publisher.publishEvent(new NacosLocalInstanceChangedEvent(this, instance));
+		}
+	}
+
 	private void resetIfNeeded(Instance instance) {
 		if (!properties.getMetadata().equals(instance.getMetadata())) {
 			properties.setMetadata(instance.getMetadata());
@@ -193,10 +238,110 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 
 	public void nacosServicesWatch() {
 
-		// nacos doesn't support watch now , publish an event every 30 seconds.
-		this.publisher.publishEvent(
-				new HeartbeatEvent(this, nacosWatchIndex.getAndIncrement()));
+		if (serviceDiscovery == null) {
+			// nacos doesn't support watch now , publish an event every 30 seconds.
+			this.publisher.publishEvent(
+					new HeartbeatEvent(this, nacosWatchIndex.getAndIncrement()));
+			return;
+		}
+		Set<String> changedServices = detectChanges();
+		metrics.recordWatch(changedServices.size());
+		if (!changedServices.isEmpty()) {
+			this.publisher.publishEvent(new NacosHeartbeatEvent(this,
+					nacosWatchIndex.getAndIncrement(), changedServices));
+		}
+
+	}
 
+	/**
+	 * Diff the fingerprints of the subscribed services against the previous watch. The
+	 * subscribed services only carry their keys, their instances are read from the local
+	 * cache of the naming client, kept up to date by the pushes of the server, so no
+	 * request is sent. The service names of the namespace are only diffed with
+	 * {@code spring.cloud.nacos.discovery.watch-service-names=true}.
+	 */
+	private Set<String> detectChanges() {
+		Set<String> changed = new HashSet<>();
+		if (properties.isWatchServiceNames()) {
+			detectServiceNameChanges(changed);
+		}
+		NamingService namingService = nacosServiceManager.getNamingService();
+		if (namingService == null) {
+			return changed;
+		}
+		try {
+			Map<String, Long> current = new HashMap<>();
+			for (ServiceInfo serviceInfo : namingService.getSubscribeServices()) {
+				if (!Objects.equals(properties.getGroup(), serviceInfo.getGroupName())) {
+					continue;
+				}
+				String service = NamingUtils.getServiceName(serviceInfo.getName());
+				// subscribed, so served from the cache updated by push
+				List<Instance> instances = namingService.getAllInstances(service,
+						serviceInfo.getGroupName(), clustersOf(serviceInfo), true);
+				current.merge(service, fingerprint(instances), (a, b) -> a + b);
+			}
+			current.forEach((service, fingerprint) -> {
+				if (!fingerprint.equals(fingerprints.get(service))) {
+					changed.add(service);
+				}
+			});
+			fingerprints.keySet().stream()
+					.filter(service -> !current.containsKey(service))
+					.forEach(changed::add);
+			fingerprints = current;
+		}
+		catch (Exception e) {
+			log.warn("get subscribed services failed, skip diffing instances.", e);
+		}
+		return changed;
+	}
+
+	private void detectServiceNameChanges(Set<String> changed) {
+		try {
+			Set<String> services = new HashSet<>(serviceDiscovery.getServices());
+			Set<String> previous = lastServices;
+			if (previous == null) {
+				changed.addAll(services);
+			}
+			else if (!services.equals(previous)) {
+				services.stream().filter(service -> !previous.contains(service))
+						.forEach(changed::add);
+				previous.stream().filter(service -> !services.contains(service))
+						.forEach(changed::add);
+			}
+			lastServices = services;
+		}
+		catch (Exception e) {
+			log.warn("get services from nacos server failed, skip diffing services.",
+					e);
+		}
+	}
+
+	private static List<String> clustersOf(ServiceInfo serviceInfo) {
+		String clusters = serviceInfo.getClusters();
+		return StringUtils.isEmpty(clusters) ? Collections.emptyList()
+				: Arrays.asList(clusters.split(","));
+	}
+
+	/**
+	 * Order-independent fingerprint of an instance set.
+	 */
+	static long fingerprint(List<Instance> instances) {
+		if (instances == null) {
+			return 0L;
+		}
+		long fingerprint = instances.size();
+		for (Instance instance : instances) {
+			long hash = Objects.hash(instance.getInstanceId(), instance.getIp(),
+					instance.getPort(), instance.getWeight(), instance.isHealthy(),
+					instance.isEnabled(), instance.getClusterName(),
+					instance.getMetadata());
+			// spread the bits so that sums of small hashes rarely collide
+			hash *= 0x9E3779B97F4A7C15L;
+			fingerprint += hash ^ (hash >>> 32);
+		}
+		return fingerprint;
 	}
 
 	@Override
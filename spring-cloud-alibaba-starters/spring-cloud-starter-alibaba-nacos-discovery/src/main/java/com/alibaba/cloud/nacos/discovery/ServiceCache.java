@@ -16,11 +16,7 @@
 
 package com.alibaba.cloud.nacos.discovery;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.cloud.nacos.discovery.reactive.NacosReactiveDiscoveryClient;
 
@@ -34,18 +30,37 @@ import org.springframework.cloud.client.ServiceInstance;
  * It's very useful to query services and instances on runtime, but it's not real-time,
  * depends on {@link NacosDiscoveryClient} or {@link NacosReactiveDiscoveryClient}
  * {@code getServices(), getInstances(..)} invoke.
+ * <p>
+ * Static view of the {@link NacosServiceCache} bean, kept for compatibility.
  *
  * @author freeman
  * @since 2021.0.1.0
+ * @deprecated since 2021.0.4.0, inject {@link NacosServiceCache} instead.
  */
+@Deprecated
 public final class ServiceCache {
 
 	private ServiceCache() {
 	}
 
-	private static List<String> services = Collections.emptyList();
+	private static volatile NacosServiceCache delegate = new NacosServiceCache();
+
+	/**
+	 * Bind the static view to the given cache.
+	 * @param serviceCache the cache used by the discovery clients
+	 */
+	static void bind(NacosServiceCache serviceCache) {
+		delegate = serviceCache;
+	}
 
-	private static Map<String, List<ServiceInstance>> instancesMap = new ConcurrentHashMap<>();
+	/**
+	 * Get the cache this static view reads and writes.
+	 * @return the cache
+	 * @since 2021.0.4.0
+	 */
+	public static NacosServiceCache getDelegate() {
+		return delegate;
+	}
 
 	/**
 	 * Set instances for specific service.
@@ -53,7 +68,7 @@ public final class ServiceCache {
 	 * @param instances service instances
 	 */
 	public static void setInstances(String serviceId, List<ServiceInstance> instances) {
-		instancesMap.put(serviceId, Collections.unmodifiableList(instances));
+		delegate.setInstances(serviceId, instances);
 	}
 
 	/**
@@ -62,8 +77,7 @@ public final class ServiceCache {
 	 * @return service instances
 	 */
 	public static List<ServiceInstance> getInstances(String serviceId) {
-		return Optional.ofNullable(instancesMap.get(serviceId))
-				.orElse(Collections.emptyList());
+		return delegate.getInstances(serviceId);
 	}
 
 	/**
@@ -73,7 +87,7 @@ public final class ServiceCache {
 	 */
 	@Deprecated
 	public static void set(List<String> serviceIds) {
-		services = Collections.unmodifiableList(serviceIds);
+		delegate.setServiceIds(serviceIds);
 	}
 
 	/**
@@ -82,7 +96,7 @@ public final class ServiceCache {
 	 * @since 2021.0.1.1
 	 */
 	public static void setServiceIds(List<String> serviceIds) {
-		services = Collections.unmodifiableList(serviceIds);
+		delegate.setServiceIds(serviceIds);
 	}
 
 	/**
@@ -92,7 +106,7 @@ public final class ServiceCache {
 	 */
 	@Deprecated
 	public static List<String> get() {
-		return services;
+		return delegate.getServiceIds();
 	}
 
 	/**
@@ -101,7 +115,7 @@ public final class ServiceCache {
 	 * @since 2021.0.1.1
 	 */
 	public static List<String> getServiceIds() {
-		return services;
+		return delegate.getServiceIds();
 	}
 
 }
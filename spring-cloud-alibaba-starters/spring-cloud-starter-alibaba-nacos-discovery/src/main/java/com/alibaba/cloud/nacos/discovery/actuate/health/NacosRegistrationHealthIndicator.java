@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery.actuate.health;
+
+import com.alibaba.cloud.nacos.registry.NacosRegistrationStatus;
+import com.alibaba.cloud.nacos.registry.NacosServiceRegistry;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * The {@link HealthIndicator} of the registration of the local instance. It is
+ * {@code OUT_OF_SERVICE} while an asynchronous registration is in progress, so adding it
+ * to the readiness group (
+ * {@code management.endpoint.health.group.readiness.include=readinessState,nacosRegistration})
+ * keeps the application out of traffic until it is registered.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosRegistrationHealthIndicator extends AbstractHealthIndicator {
+
+	private final NacosServiceRegistry nacosServiceRegistry;
+
+	public NacosRegistrationHealthIndicator(NacosServiceRegistry nacosServiceRegistry) {
+		this.nacosServiceRegistry = nacosServiceRegistry;
+	}
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) {
+		NacosRegistrationStatus status = nacosServiceRegistry.getRegistrationStatus();
+		switch (status) {
+		case REGISTERED:
+			builder.up();
+			break;
+		case REGISTERING:
+			builder.outOfService();
+			break;
+		case FAILED:
+			builder.down();
+			break;
+		default:
+			builder.unknown();
+			break;
+		}
+		builder.withDetail("status", status)
+				.withDetail("attempts", nacosServiceRegistry.getRegistrationAttempts());
+		Exception error = nacosServiceRegistry.getLastRegistrationError();
+		if (error != null) {
+			builder.withDetail("error",
+					error.getClass().getName() + ": " + error.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.discovery.actuate.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link NacosDiscoveryMetrics} backed by Micrometer. The meters of a service are
+ * registered once and then looked up from a local map, so recording costs a map lookup
+ * and an atomic update. At most {@code maxServiceTags} service ids are used as a tag,
+ * the meters of the other services are shared under the {@value #OTHER} tag.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class MicrometerNacosDiscoveryMetrics implements NacosDiscoveryMetrics {
+
+	/**
+	 * Service id tag of the services beyond the max distinct service tags.
+	 */
+	public static final String OTHER = "other";
+
+	private static final String PREFIX = "nacos.discovery.";
+
+	private final MeterRegistry registry;
+
+	private final int maxServiceTags;
+
+	private final Map<String, ServiceMeters> serviceMeters = new ConcurrentHashMap<>();
+
+	private final Timer servicesLookupSuccess;
+
+	private final Timer servicesLookupError;
+
+	private final Counter servicesFallback;
+
+	private final Counter watchChecks;
+
+	private final Counter watchChangedServices;
+
+	public MicrometerNacosDiscoveryMetrics(MeterRegistry registry, int maxServiceTags) {
+		this.registry = registry;
+		this.maxServiceTags = Math.max(0, maxServiceTags);
+		this.servicesLookupSuccess = servicesLookupTimer("success");
+		this.servicesLookupError = servicesLookupTimer("error");
+		this.servicesFallback = Counter.builder(PREFIX + "services.fallback")
+				.description("Cached service names returned because Nacos failed")
+				.register(registry);
+		this.watchChecks = Counter.builder(PREFIX + "watch.checks")
+				.description("Topology checks of NacosWatch").register(registry);
+		this.watchChangedServices = Counter.builder(PREFIX + "watch.changed.services")
+				.description("Services found changed by NacosWatch").register(registry);
+	}
+
+	@Override
+	public void recordInstancesLookup(String serviceId, long nanos, boolean success) {
+		ServiceMeters meters = meters(serviceId);
+		(success ? meters.lookupSuccess : meters.lookupError).record(nanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordServicesLookup(long nanos, boolean success) {
+		(success ? servicesLookupSuccess : servicesLookupError).record(nanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordInstancesFallback(String serviceId) {
+		meters(serviceId).fallback.increment();
+	}
+
+	@Override
+	public void recordServicesFallback() {
+		servicesFallback.increment();
+	}
+
+	@Override
+	public void recordEmptyResponse(String serviceId) {
+		meters(serviceId).emptyResponse.increment();
+	}
+
+	@Override
+	public void recordCrossCluster(String serviceId) {
+		meters(serviceId).crossCluster.increment();
+	}
+
+	@Override
+	public void recordWatch(int changedServices) {
+		watchChecks.increment();
+		if (changedServices > 0) {
+			watchChangedServices.increment(changedServices);
+		}
+	}
+
+	private ServiceMeters meters(String serviceId) {
+		String tag = serviceId == null ? OTHER : serviceId;
+		ServiceMeters meters = serviceMeters.get(tag);
+		if (meters != null) {
+			return meters;
+		}
+		// the bound may be overshot by a few concurrent first uses, which is harmless
+		if (serviceMeters.size() >= maxServiceTags) {
+			tag = OTHER;
+		}
+		return serviceMeters.computeIfAbsent(tag, ServiceMeters::new);
+	}
+
+	private Timer servicesLookupTimer(String outcome) {
+		return Timer.builder(PREFIX + "services.lookup")
+				.description("Lookups of the service names from Nacos")
+				.tag("outcome", outcome).register(registry);
+	}
+
+	private final class ServiceMeters {
+
+		private final Timer lookupSuccess;
+
+		private final Timer lookupError;
+
+		private final Counter fallback;
+
+		private final Counter emptyResponse;
+
+		private final Counter crossCluster;
+
+		private ServiceMeters(String serviceId) {
+			this.lookupSuccess = lookupTimer(serviceId, "success");
+			this.lookupError = lookupTimer(serviceId, "error");
+			this.fallback = Counter.builder(PREFIX + "instances.fallback")
+					.description("Cached instances returned because Nacos failed")
+					.tag("serviceId", serviceId).register(registry);
+			this.emptyResponse = Counter.builder("nacos.loadbalancer.empty.response")
+					.description("Choices of the load balancer without any instance")
+					.tag("serviceId", serviceId).register(registry);
+			this.crossCluster = Counter.builder("nacos.loadbalancer.cross.cluster")
+					.description("Choices of the load balancer outside of the local cluster")
+					.tag("serviceId", serviceId).register(registry);
+		}
+
+		private Timer lookupTimer(String serviceId, String outcome) {
+			return Timer.builder(PREFIX + "instances.lookup")
+					.description("Lookups of the instances of a service from Nacos")
+					.tag("serviceId", serviceId).tag("outcome", outcome)
+					.register(registry);
+		}
+
+	}
+
+}
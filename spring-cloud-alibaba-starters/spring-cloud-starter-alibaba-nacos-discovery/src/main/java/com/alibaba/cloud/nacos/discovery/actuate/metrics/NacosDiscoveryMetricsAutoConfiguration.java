@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.discovery.actuate.metrics;
+
+import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.discovery.NacosServiceCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Records the {@link NacosDiscoveryMetrics} of discovery and load balancing in the
+ * Micrometer {@link MeterRegistry} of the application.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnNacosDiscoveryEnabled
+@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.metrics-enabled", matchIfMissing = true)
+@AutoConfigureAfter(name = {
+		"org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+		"org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+		"org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration" })
+public class NacosDiscoveryMetricsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosDiscoveryMetrics nacosDiscoveryMetrics(MeterRegistry meterRegistry,
+			NacosDiscoveryProperties discoveryProperties) {
+		return new MicrometerNacosDiscoveryMetrics(meterRegistry,
+				discoveryProperties.getMetricsMaxServiceTags());
+	}
+
+	@Bean
+	public MeterBinder nacosServiceCacheMetrics(
+			ObjectProvider<NacosServiceCache> serviceCache) {
+		return registry -> serviceCache.ifAvailable(cache -> {
+			Gauge.builder("nacos.discovery.cache.entries", cache, NacosServiceCache::size)
+					.description("Services whose instances are cached")
+					.register(registry);
+			Gauge.builder("nacos.discovery.cache.services", cache,
+					it -> it.getServiceIds().size())
+					.description("Service names known from the last lookup")
+					.register(registry);
+		});
+	}
+
+}
@@ -16,8 +16,16 @@
 
 package com.alibaba.cloud.nacos.discovery.reactive;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
+import com.alibaba.cloud.nacos.discovery.NacosDiscoveryClient;
+import com.alibaba.cloud.nacos.discovery.NacosInstancesLoader;
+import com.alibaba.cloud.nacos.discovery.NacosServiceCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.cloud.nacos.discovery.ServiceCache;
 import com.alibaba.nacos.api.exception.NacosException;
@@ -43,11 +51,31 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 
 	private NacosServiceDiscovery serviceDiscovery;
 
+	private NacosServiceCache serviceCache;
+
+	private NacosInstancesLoader instancesLoader;
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
 	@Value("${spring.cloud.nacos.discovery.failure-tolerance-enabled:false}")
 	private boolean failureToleranceEnabled;
 
 	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
+		this(nacosServiceDiscovery, null);
+	}
+
+	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery,
+			NacosServiceCache serviceCache) {
 		this.serviceDiscovery = nacosServiceDiscovery;
+		this.serviceCache = serviceCache != null ? serviceCache
+				: ServiceCache.getDelegate();
+		this.instancesLoader = new NacosInstancesLoader(nacosServiceDiscovery,
+				this.serviceCache);
+	}
+
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+		this.instancesLoader.setMetrics(metrics);
 	}
 
 	@Override
@@ -64,37 +92,61 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 
 	private Function<String, Publisher<ServiceInstance>> loadInstancesFromNacos() {
 		return serviceId -> {
+			List<ServiceInstance> cached = instancesLoader.getCachedInstances(serviceId,
+					false);
+			if (cached != null) {
+				return Flux.fromIterable(cached);
+			}
 			try {
-				return Mono.justOrEmpty(serviceDiscovery.getInstances(serviceId))
-						.flatMapMany(instances -> {
-							ServiceCache.setInstances(serviceId, instances);
-							return Flux.fromIterable(instances);
-						});
+				return Flux.fromIterable(instancesLoader.getInstances(serviceId));
 			}
 			catch (NacosException e) {
-				log.error("get service instance[{}] from nacos error!", serviceId, e);
-				return failureToleranceEnabled
-						? Flux.fromIterable(ServiceCache.getInstances(serviceId))
-						: Flux.empty();
+				return Flux.fromIterable(fallbackInstances(serviceId, e));
 			}
 		};
 	}
 
+	/**
+	 * Get the instances of several services at once, see
+	 * {@link NacosDiscoveryClient#getInstances(Collection)}.
+	 * Services that can not be looked up map to their cached instances if failure
+	 * tolerance is enabled, to an empty list otherwise.
+	 * @param serviceIds ids of services
+	 * @return instances by service id, in the order of the given ids
+	 */
+	public Mono<Map<String, List<ServiceInstance>>> getInstances(
+			Collection<String> serviceIds) {
+		return Mono
+				.fromCallable(() -> instancesLoader.getInstances(serviceIds,
+						this::fallbackInstances))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private List<ServiceInstance> fallbackInstances(String serviceId, Throwable e) {
+		log.error("get service instance[{}] from nacos error!", serviceId, e);
+		if (failureToleranceEnabled) {
+			return instancesLoader.getFallbackInstances(serviceId);
+		}
+		return Collections.emptyList();
+	}
+
 	@Override
 	public Flux<String> getServices() {
 		return Flux.defer(() -> {
 			try {
 				return Mono.justOrEmpty(serviceDiscovery.getServices())
 						.flatMapMany(services -> {
-							ServiceCache.setServiceIds(services);
+							serviceCache.setServiceIds(services);
 							return Flux.fromIterable(services);
 						});
 			}
 			catch (Exception e) {
 				log.error("get services from nacos server fail,", e);
-				return failureToleranceEnabled
-						? Flux.fromIterable(ServiceCache.getServiceIds())
-						: Flux.empty();
+				if (failureToleranceEnabled) {
+					metrics.recordServicesFallback();
+					return Flux.fromIterable(serviceCache.getServiceIds());
+				}
+				return Flux.empty();
 			}
 		}).subscribeOn(Schedulers.boundedElastic());
 	}
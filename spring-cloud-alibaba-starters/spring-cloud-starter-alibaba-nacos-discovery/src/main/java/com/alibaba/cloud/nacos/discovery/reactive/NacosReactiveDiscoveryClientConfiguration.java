@@ -17,9 +17,12 @@
 package com.alibaba.cloud.nacos.discovery.reactive;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
+import com.alibaba.cloud.nacos.discovery.NacosServiceCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -45,8 +48,13 @@ public class NacosReactiveDiscoveryClientConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public NacosReactiveDiscoveryClient nacosReactiveDiscoveryClient(
-			NacosServiceDiscovery nacosServiceDiscovery) {
-		return new NacosReactiveDiscoveryClient(nacosServiceDiscovery);
+			NacosServiceDiscovery nacosServiceDiscovery,
+			NacosServiceCache nacosServiceCache,
+			ObjectProvider<NacosDiscoveryMetrics> metrics) {
+		NacosReactiveDiscoveryClient discoveryClient = new NacosReactiveDiscoveryClient(
+				nacosServiceDiscovery, nacosServiceCache);
+		metrics.ifAvailable(discoveryClient::setMetrics);
+		return discoveryClient;
 	}
 
 }
@@ -16,11 +16,21 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.nacos.api.naming.NamingService;
@@ -29,24 +39,42 @@ import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
 
 /**
  * Endpoint for nacos discovery, get nacos properties and subscribed services.
  *
+ * <p>
+ * The instances of the subscribed services are read from the subscription cache of the
+ * Nacos client, so a scrape does not reach the Nacos server. With {@code live=true} they
+ * are queried from the server instead, in parallel with at most
+ * {@code spring.cloud.nacos.discovery.batch-lookup-concurrency} requests in flight. The
+ * subscriptions can be filtered by a part of their service name and are paged, only the
+ * requested page is resolved.
+ *
  * @author xiaojing
+ * @author freeman
  */
 @Endpoint(id = "nacosdiscovery")
-public class NacosDiscoveryEndpoint {
+public class NacosDiscoveryEndpoint implements DisposableBean {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(NacosDiscoveryEndpoint.class);
 
+	/**
+	 * Subscriptions in a page when no size is requested.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+
 	private NacosServiceManager nacosServiceManager;
 
 	private NacosDiscoveryProperties nacosDiscoveryProperties;
 
+	private volatile ExecutorService lookupExecutor;
+
 	public NacosDiscoveryEndpoint(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosServiceManager = nacosServiceManager;
@@ -56,27 +84,137 @@ public class NacosDiscoveryEndpoint {
 	/**
 	 * @return nacos discovery endpoint
 	 */
-	@ReadOperation
 	public Map<String, Object> nacosDiscovery() {
+		return nacosDiscovery(null, null, null, null);
+	}
+
+	/**
+	 * @param serviceId only subscriptions whose service name contains it, all if null
+	 * @param page page number starting from 1, the first page if null
+	 * @param size subscriptions in a page, {@link #DEFAULT_PAGE_SIZE} if null
+	 * @param live whether to query the instances from the Nacos server
+	 * @return nacos discovery endpoint
+	 */
+	@ReadOperation
+	public Map<String, Object> nacosDiscovery(@Nullable String serviceId,
+			@Nullable Integer page, @Nullable Integer size, @Nullable Boolean live) {
 		Map<String, Object> result = new HashMap<>();
 		result.put("NacosDiscoveryProperties", nacosDiscoveryProperties);
 
+		int pageNo = page == null || page < 1 ? 1 : page;
+		int pageSize = size == null || size < 1 ? DEFAULT_PAGE_SIZE : size;
 		NamingService namingService = nacosServiceManager.getNamingService();
 		List<ServiceInfo> subscribe = Collections.emptyList();
+		int total = 0;
 
 		try {
-			subscribe = namingService.getSubscribeServices();
-			for (ServiceInfo serviceInfo : subscribe) {
-				List<Instance> instances = namingService.getAllInstances(
-						serviceInfo.getName(), serviceInfo.getGroupName());
-				serviceInfo.setHosts(instances);
+			List<ServiceInfo> matched = namingService.getSubscribeServices().stream()
+					.filter(serviceInfo -> StringUtils.isEmpty(serviceId)
+							|| serviceInfo.getName().contains(serviceId))
+					.sorted(Comparator.comparing(ServiceInfo::getGroupName)
+							.thenComparing(ServiceInfo::getName))
+					.collect(Collectors.toList());
+			total = matched.size();
+			long from = (long) (pageNo - 1) * pageSize;
+			subscribe = from >= total ? Collections.emptyList()
+					: new ArrayList<>(matched.subList((int) from,
+							(int) Math.min(total, from + pageSize)));
+			if (Boolean.TRUE.equals(live)) {
+				fetchLive(namingService, subscribe);
+			}
+			else {
+				for (ServiceInfo serviceInfo : subscribe) {
+					serviceInfo.setHosts(getInstances(namingService, serviceInfo, true));
+				}
 			}
 		}
 		catch (Exception e) {
 			log.error("get subscribe services from nacos fail,", e);
 		}
 		result.put("subscribe", subscribe);
+		result.put("total", total);
+		result.put("page", pageNo);
+		result.put("size", pageSize);
 		return result;
 	}
 
+	private void fetchLive(NamingService namingService, List<ServiceInfo> subscribe) {
+		if (subscribe.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = lookupExecutor();
+		List<CompletableFuture<Void>> lookups = new ArrayList<>(subscribe.size());
+		for (ServiceInfo serviceInfo : subscribe) {
+			lookups.add(CompletableFuture.runAsync(() -> {
+				try {
+					serviceInfo
+							.setHosts(getInstances(namingService, serviceInfo, false));
+				}
+				catch (Exception e) {
+					log.warn("get instances of {} from nacos fail,", serviceInfo.getKey(),
+							e);
+				}
+			}, executor));
+		}
+		CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).join();
+	}
+
+	/**
+	 * Created on the first live scrape and reused by the next ones, its idle threads
+	 * time out. Shut down with the endpoint.
+	 */
+	private ExecutorService lookupExecutor() {
+		ExecutorService executor = lookupExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = lookupExecutor;
+				if (executor == null) {
+					int concurrency = Math.max(1,
+							nacosDiscoveryProperties.getBatchLookupConcurrency());
+					AtomicInteger index = new AtomicInteger();
+					ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency,
+							concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+							runnable -> {
+								Thread thread = new Thread(runnable,
+										"nacos-discovery-endpoint-"
+												+ index.incrementAndGet());
+								thread.setDaemon(true);
+								return thread;
+							});
+					pool.allowCoreThreadTimeOut(true);
+					lookupExecutor = executor = pool;
+				}
+			}
+		}
+		return executor;
+	}
+
+	@Override
+	public void destroy() {
+		ExecutorService executor;
+		synchronized (this) {
+			executor = lookupExecutor;
+			lookupExecutor = null;
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<Instance> getInstances(NamingService namingService,
+			ServiceInfo serviceInfo, boolean subscribe) throws Exception {
+		// the exact clusters of the subscription, otherwise the client would not find
+		// it in its cache and subscribe again
+		List<String> clusters = new ArrayList<>();
+		if (StringUtils.isNotEmpty(serviceInfo.getClusters())) {
+			for (String cluster : serviceInfo.getClusters().split(",")) {
+				if (StringUtils.isNotEmpty(cluster)) {
+					clusters.add(cluster);
+				}
+			}
+		}
+		return namingService.getAllInstances(serviceInfo.getName(),
+				serviceInfo.getGroupName(), clusters, subscribe);
+	}
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.event;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link com.alibaba.cloud.nacos.discovery.NacosWatch} when Nacos pushes
+ * the local service, carrying the state of the local instance as seen by the server,
+ * or no instance when the server no longer lists it.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosLocalInstanceChangedEvent extends ApplicationEvent {
+
+	private final Instance instance;
+
+	public NacosLocalInstanceChangedEvent(Instance instance) {
+		this(instance, instance);
+	}
+
+	/**
+	 * @param source the object publishing the event
+	 * @param instance the local instance, null if absent from the pushed instances
+	 */
+	public NacosLocalInstanceChangedEvent(Object source, Instance instance) {
+		super(source);
+		this.instance = instance;
+	}
+
+	/**
+	 * @return the local instance, null if the server no longer lists it
+	 */
+	public Instance getInstance() {
+		return instance;
+	}
+
+	public boolean isAbsent() {
+		return instance == null;
+	}
+
+}
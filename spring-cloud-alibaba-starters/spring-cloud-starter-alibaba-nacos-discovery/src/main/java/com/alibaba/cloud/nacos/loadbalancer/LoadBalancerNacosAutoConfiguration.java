@@ -16,10 +16,16 @@
 
 package com.alibaba.cloud.nacos.loadbalancer;
 
+import java.util.Map;
+
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
@@ -27,10 +33,66 @@ import org.springframework.context.annotation.Configuration;
  * Auto-configuration} that sets up LoadBalancer for Nacos.
  */
 @Configuration(proxyBeanMethods = false)
-@EnableConfigurationProperties
+@EnableConfigurationProperties(NacosLoadBalancerProperties.class)
 @ConditionalOnLoadBalancerNacos
 @ConditionalOnNacosDiscoveryEnabled
 @LoadBalancerClients(defaultConfiguration = NacosLoadBalancerClientConfiguration.class)
 public class LoadBalancerNacosAutoConfiguration {
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosLoadBalancerStats nacosLoadBalancerStats() {
+		return new NacosLoadBalancerStats();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.strategy", havingValue = "least-response-time")
+	public NacosLoadBalancerStatsLifecycle nacosLoadBalancerStatsLifecycle(
+			NacosLoadBalancerStats nacosLoadBalancerStats) {
+		return new NacosLoadBalancerStatsLifecycle(nacosLoadBalancerStats);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.locality.enabled", havingValue = "true")
+	public NacosLocality nacosLocality(NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosLoadBalancerProperties properties) {
+		NacosLoadBalancerProperties.Locality locality = properties.getLocality();
+		Map<String, String> metadata = nacosDiscoveryProperties.getMetadata();
+		return new NacosLocality(
+				locality.getZone() != null ? locality.getZone()
+						: metadata.get(NacosInstanceSnapshot.ZONE_METADATA_KEY),
+				locality.getRegion() != null ? locality.getRegion()
+						: metadata.get(NacosInstanceSnapshot.REGION_METADATA_KEY),
+				locality.getMinHealthyPercent());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.outlier-detection.enabled", havingValue = "true")
+	public static class NacosOutlierDetectionConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosOutlierDetector nacosOutlierDetector(
+				NacosLoadBalancerStats nacosLoadBalancerStats,
+				NacosLoadBalancerProperties properties) {
+			NacosLoadBalancerProperties.OutlierDetection outlierDetection = properties
+					.getOutlierDetection();
+			return new NacosOutlierDetector(nacosLoadBalancerStats,
+					outlierDetection.getConsecutiveFailures(),
+					outlierDetection.getBaseEjectionTime(),
+					outlierDetection.getMaxEjectionTime(),
+					outlierDetection.getMaxEjectionPercent());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosOutlierDetectionLifecycle nacosOutlierDetectionLifecycle(
+				NacosOutlierDetector nacosOutlierDetector) {
+			return new NacosOutlierDetectionLifecycle(nacosOutlierDetector);
+		}
+
+	}
+
 }
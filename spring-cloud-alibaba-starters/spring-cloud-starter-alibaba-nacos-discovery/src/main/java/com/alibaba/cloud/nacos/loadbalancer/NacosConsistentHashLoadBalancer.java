@@ -0,0 +1,219 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * {@link NacosLoadBalancer} routing the requests with the same key to the same instance,
+ * so that the caches of the instances stay hot. The key is read from a header or a
+ * cookie of the request, requests without a key are balanced by weighted random.
+ * <p>
+ * Each instance owns a number of points on a hash ring proportional to its Nacos
+ * weight. The points of an instance are computed once and reused when the instance
+ * list changes, so adding or removing an instance only moves the keys of its own
+ * points.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosConsistentHashLoadBalancer extends NacosLoadBalancer {
+
+	/**
+	 * Default points on the ring of an instance of weight 1.
+	 */
+	public static final int DEFAULT_VIRTUAL_NODES = 100;
+
+	private static final int MAX_VIRTUAL_NODES = 10000;
+
+	private final String hashHeader;
+
+	private final String hashCookie;
+
+	private final int virtualNodes;
+
+	private final Map<String, long[]> pointsByInstance = new ConcurrentHashMap<>();
+
+	private volatile Ring ring;
+
+	public NacosConsistentHashLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties,
+			String hashHeader, String hashCookie, int virtualNodes) {
+		super(serviceInstanceListSupplierProvider, serviceId, nacosDiscoveryProperties);
+		this.hashHeader = hashHeader;
+		this.hashCookie = hashCookie;
+		this.virtualNodes = Math.max(1, virtualNodes);
+	}
+
+	@Override
+	protected ServiceInstance choose(WeightedInstanceIndex index, Request<?> request) {
+		String key = hashKey(request);
+		if (key == null || index.size() < 2) {
+			return super.choose(index, request);
+		}
+		Ring current = this.ring;
+		if (current == null || current.index != index) {
+			current = buildRing(index);
+			this.ring = current;
+		}
+		return current.locate(hash(key));
+	}
+
+	@Override
+	protected void onSnapshotChanged(NacosInstanceSnapshot snapshot) {
+		Set<String> keys = new HashSet<>();
+		for (ServiceInstance serviceInstance : snapshot.getSource()) {
+			keys.add(pointsKey(serviceInstance,
+					WeightedInstanceIndex.weightOf(serviceInstance)));
+		}
+		pointsByInstance.keySet().retainAll(keys);
+	}
+
+	private String hashKey(Request<?> request) {
+		Object context = request == null ? null : request.getContext();
+		if (!(context instanceof RequestDataContext)) {
+			return null;
+		}
+		RequestData requestData = ((RequestDataContext) context).getClientRequest();
+		if (requestData == null) {
+			return null;
+		}
+		if (StringUtils.isNotEmpty(hashHeader) && requestData.getHeaders() != null) {
+			String value = requestData.getHeaders().getFirst(hashHeader);
+			if (StringUtils.isNotEmpty(value)) {
+				return value;
+			}
+		}
+		if (StringUtils.isNotEmpty(hashCookie) && requestData.getCookies() != null) {
+			String value = requestData.getCookies().getFirst(hashCookie);
+			if (StringUtils.isNotEmpty(value)) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+	private Ring buildRing(WeightedInstanceIndex index) {
+		int size = index.size();
+		long[][] points = new long[size][];
+		int total = 0;
+		for (int i = 0; i < size; i++) {
+			ServiceInstance serviceInstance = index.getInstance(i);
+			double weight = index.getWeight(i);
+			points[i] = pointsByInstance.computeIfAbsent(
+					pointsKey(serviceInstance, weight),
+					key -> pointsOf(serviceInstance, weight));
+			total += points[i].length;
+		}
+		// merge the sorted points of every instance
+		long[] ring = new long[total];
+		ServiceInstance[] owners = new ServiceInstance[total];
+		PriorityQueue<int[]> cursors = new PriorityQueue<>(size,
+				(a, b) -> Long.compare(points[a[0]][a[1]], points[b[0]][b[1]]));
+		for (int i = 0; i < size; i++) {
+			if (points[i].length > 0) {
+				cursors.add(new int[] { i, 0 });
+			}
+		}
+		for (int n = 0; n < total; n++) {
+			int[] cursor = cursors.poll();
+			ring[n] = points[cursor[0]][cursor[1]];
+			owners[n] = index.getInstance(cursor[0]);
+			if (++cursor[1] < points[cursor[0]].length) {
+				cursors.add(cursor);
+			}
+		}
+		return new Ring(index, ring, owners);
+	}
+
+	private long[] pointsOf(ServiceInstance serviceInstance, double weight) {
+		int count = (int) Math.max(1,
+				Math.min(MAX_VIRTUAL_NODES, Math.round(virtualNodes * weight)));
+		String prefix = NacosLoadBalancerStats.keyOf(serviceInstance) + "#";
+		long[] points = new long[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = hash(prefix + i);
+		}
+		Arrays.sort(points);
+		return points;
+	}
+
+	private static String pointsKey(ServiceInstance serviceInstance, double weight) {
+		return NacosLoadBalancerStats.keyOf(serviceInstance) + "@" + weight;
+	}
+
+	/**
+	 * 64-bit FNV-1a followed by the finalizer of MurmurHash3, so that close keys spread
+	 * over the whole ring.
+	 */
+	static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static final class Ring {
+
+		private final WeightedInstanceIndex index;
+
+		private final long[] points;
+
+		private final ServiceInstance[] owners;
+
+		private Ring(WeightedInstanceIndex index, long[] points,
+				ServiceInstance[] owners) {
+			this.index = index;
+			this.points = points;
+			this.owners = owners;
+		}
+
+		private ServiceInstance locate(long hash) {
+			int position = Arrays.binarySearch(points, hash);
+			if (position < 0) {
+				position = -position - 1;
+			}
+			return owners[position == points.length ? 0 : position];
+		}
+
+	}
+
+}
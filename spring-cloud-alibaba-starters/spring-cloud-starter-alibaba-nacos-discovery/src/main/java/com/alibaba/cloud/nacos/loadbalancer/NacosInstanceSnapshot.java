@@ -0,0 +1,217 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Immutable selection structures derived from one instance list emitted by a
+ * {@link org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier}.
+ * <p>
+ * A snapshot is rebuilt only when the supplier emits another list, so the request path
+ * never re-derives anything from instance metadata. Besides the whole list, the
+ * instances are partitioned by cluster, zone and region, each partition knowing how
+ * many instances it holds, eligible or not.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public final class NacosInstanceSnapshot {
+
+	/**
+	 * Metadata key of the instance cluster, used for non-Nacos instances.
+	 */
+	public static final String CLUSTER_METADATA_KEY = NacosServiceInstance.METADATA_CLUSTER;
+
+	/**
+	 * Metadata key of the instance zone.
+	 */
+	public static final String ZONE_METADATA_KEY = "zone";
+
+	/**
+	 * Metadata key of the instance region.
+	 */
+	public static final String REGION_METADATA_KEY = "region";
+
+	private final List<ServiceInstance> source;
+
+	private final WeightedInstanceIndex index;
+
+	private final Map<String, Partition> clusters;
+
+	private final Map<String, Partition> zones;
+
+	private final Map<String, Partition> regions;
+
+	private NacosInstanceSnapshot(List<ServiceInstance> source) {
+		this.source = source;
+		this.index = WeightedInstanceIndex.of(source);
+		this.clusters = partition(source, NacosInstanceSnapshot::clusterOf);
+		this.zones = partition(source,
+				serviceInstance -> metadataOf(serviceInstance, ZONE_METADATA_KEY));
+		this.regions = partition(source,
+				serviceInstance -> metadataOf(serviceInstance, REGION_METADATA_KEY));
+	}
+
+	private static Map<String, Partition> partition(
+			List<ServiceInstance> serviceInstances,
+			Function<ServiceInstance, String> keyOf) {
+		Map<String, List<ServiceInstance>> buckets = new HashMap<>();
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			String key = keyOf.apply(serviceInstance);
+			if (key != null) {
+				buckets.computeIfAbsent(key, k -> new ArrayList<>())
+						.add(serviceInstance);
+			}
+		}
+		if (buckets.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, Partition> partitions = new HashMap<>(
+				(int) (buckets.size() / 0.75F) + 1);
+		buckets.forEach((key, instances) -> partitions.put(key,
+				new Partition(WeightedInstanceIndex.of(instances), instances.size())));
+		return Collections.unmodifiableMap(partitions);
+	}
+
+	/**
+	 * Build a snapshot of the given instance list.
+	 * @param serviceInstances instance list
+	 * @return snapshot
+	 */
+	public static NacosInstanceSnapshot of(List<ServiceInstance> serviceInstances) {
+		return new NacosInstanceSnapshot(serviceInstances);
+	}
+
+	static String clusterOf(ServiceInstance serviceInstance) {
+		if (serviceInstance instanceof NacosServiceInstance) {
+			return ((NacosServiceInstance) serviceInstance).getClusterName();
+		}
+		return metadataOf(serviceInstance, CLUSTER_METADATA_KEY);
+	}
+
+	private static String metadataOf(ServiceInstance serviceInstance, String key) {
+		Map<String, String> metadata = serviceInstance.getMetadata();
+		return metadata == null ? null : metadata.get(key);
+	}
+
+	/**
+	 * Whether this snapshot was built from the given emission of the supplier. The
+	 * lists are compared by identity, nothing is compared per request: the Nacos
+	 * suppliers and discovery clients hand out the same list as long as the instances
+	 * don't change, see {@link com.alibaba.cloud.nacos.discovery.NacosServiceCache}.
+	 * @param serviceInstances instance list
+	 * @return true if the snapshot can be reused
+	 */
+	public boolean isBuiltFrom(List<ServiceInstance> serviceInstances) {
+		return this.source == serviceInstances;
+	}
+
+	public List<ServiceInstance> getSource() {
+		return source;
+	}
+
+	public WeightedInstanceIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Index of the instances in the given cluster.
+	 * @param clusterName cluster name
+	 * @return the index of the cluster, or null if no eligible instance is in it
+	 */
+	public WeightedInstanceIndex getClusterIndex(String clusterName) {
+		return indexOf(clusters, clusterName);
+	}
+
+	/**
+	 * Index of the instances in the given zone.
+	 * @param zone zone name
+	 * @return the index of the zone, or null if no eligible instance is in it
+	 */
+	public WeightedInstanceIndex getZoneIndex(String zone) {
+		return indexOf(zones, zone);
+	}
+
+	/**
+	 * Index of the instances in the given region.
+	 * @param region region name
+	 * @return the index of the region, or null if no eligible instance is in it
+	 */
+	public WeightedInstanceIndex getRegionIndex(String region) {
+		return indexOf(regions, region);
+	}
+
+	/**
+	 * @param clusterName cluster name
+	 * @return number of instances in the cluster, eligible or not
+	 */
+	public int getClusterSize(String clusterName) {
+		return sizeOf(clusters, clusterName);
+	}
+
+	/**
+	 * @param zone zone name
+	 * @return number of instances in the zone, eligible or not
+	 */
+	public int getZoneSize(String zone) {
+		return sizeOf(zones, zone);
+	}
+
+	/**
+	 * @param region region name
+	 * @return number of instances in the region, eligible or not
+	 */
+	public int getRegionSize(String region) {
+		return sizeOf(regions, region);
+	}
+
+	private static WeightedInstanceIndex indexOf(Map<String, Partition> partitions,
+			String key) {
+		Partition partition = key == null ? null : partitions.get(key);
+		return partition == null || partition.index.isEmpty() ? null : partition.index;
+	}
+
+	private static int sizeOf(Map<String, Partition> partitions, String key) {
+		Partition partition = key == null ? null : partitions.get(key);
+		return partition == null ? 0 : partition.size;
+	}
+
+	private static final class Partition {
+
+		private final WeightedInstanceIndex index;
+
+		private final int size;
+
+		private Partition(WeightedInstanceIndex index, int size) {
+			this.index = index;
+			this.size = size;
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * {@link NacosLoadBalancer} using the power of two choices: two instances are drawn
+ * with a probability proportional to their Nacos weight and the one with the lower
+ * {@link NacosLoadBalancerStats.InstanceStats#getCost() cost}, based on its observed
+ * latency and its requests in flight, is chosen. Slow instances keep a trickle of
+ * traffic, so they are chosen again once they recover.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosLeastResponseTimeLoadBalancer extends NacosLoadBalancer {
+
+	private static final int MAX_DRAWS = 3;
+
+	private final NacosLoadBalancerStats stats;
+
+	public NacosLeastResponseTimeLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosLoadBalancerStats stats) {
+		super(serviceInstanceListSupplierProvider, serviceId, nacosDiscoveryProperties);
+		this.stats = stats;
+	}
+
+	@Override
+	protected ServiceInstance choose(WeightedInstanceIndex index, Request<?> request) {
+		ServiceInstance first = index.choose();
+		if (first == null || index.size() < 2) {
+			return first;
+		}
+		ServiceInstance second = index.choose();
+		// a heavy instance is often drawn twice, draw again a few times
+		for (int i = 1; i < MAX_DRAWS && second == first; i++) {
+			second = index.choose();
+		}
+		if (second == first) {
+			return first;
+		}
+		return costOf(second) < costOf(first) ? second : first;
+	}
+
+	private double costOf(ServiceInstance serviceInstance) {
+		NacosLoadBalancerStats.InstanceStats instanceStats = stats.peek(serviceInstance);
+		// not free, or a new instance would win every draw until its first call
+		return instanceStats == null ? NacosLoadBalancerStats.UNKNOWN_COST
+				: instanceStats.getCost();
+	}
+
+	@Override
+	protected void onSnapshotChanged(NacosInstanceSnapshot snapshot) {
+		stats.retain(getServiceId(), snapshot.getSource());
+	}
+
+}
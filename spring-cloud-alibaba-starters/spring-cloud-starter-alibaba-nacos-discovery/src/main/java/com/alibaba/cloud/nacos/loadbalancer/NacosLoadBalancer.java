@@ -17,12 +17,13 @@
 package com.alibaba.cloud.nacos.loadbalancer;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
-import com.alibaba.cloud.nacos.balancer.NacosBalancer;
-import com.alibaba.nacos.client.naming.utils.CollectionUtils;
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
@@ -48,12 +49,27 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	private static final Logger log = LoggerFactory.getLogger(NacosLoadBalancer.class);
 
+	private static final long CROSS_CLUSTER_WARN_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
 	private final String serviceId;
 
 	private ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
 
 	private final NacosDiscoveryProperties nacosDiscoveryProperties;
 
+	private volatile NacosInstanceSnapshot snapshot;
+
+	private final AtomicLong lastCrossClusterWarn = new AtomicLong(
+			System.nanoTime() - CROSS_CLUSTER_WARN_INTERVAL);
+
+	private final AtomicLong suppressedCrossClusterWarns = new AtomicLong();
+
+	private NacosDiscoveryMetrics metrics = NacosDiscoveryMetrics.NOOP;
+
+	private NacosOutlierDetector outlierDetector;
+
+	private NacosLocality locality;
+
 	public NacosLoadBalancer(
 			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
 			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties) {
@@ -62,43 +78,54 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
 	}
 
+	public void setMetrics(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public void setOutlierDetector(NacosOutlierDetector outlierDetector) {
+		this.outlierDetector = outlierDetector;
+	}
+
+	public void setLocality(NacosLocality locality) {
+		this.locality = locality;
+	}
+
 	@Override
 	public Mono<Response<ServiceInstance>> choose(Request request) {
 		ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
 				.getIfAvailable(NoopServiceInstanceListSupplier::new);
-		return supplier.get().next().map(this::getInstanceResponse);
+		return supplier.get().next()
+				.map(serviceInstances -> getInstanceResponse(serviceInstances, request));
 	}
 
 	private Response<ServiceInstance> getInstanceResponse(
-			List<ServiceInstance> serviceInstances) {
+			List<ServiceInstance> serviceInstances, Request<?> request) {
 		if (serviceInstances.isEmpty()) {
 			log.warn("No servers available for service: " + this.serviceId);
+			metrics.recordEmptyResponse(serviceId);
 			return new EmptyResponse();
 		}
 
 		try {
 			String clusterName = this.nacosDiscoveryProperties.getClusterName();
 
-			List<ServiceInstance> instancesToChoose = serviceInstances;
-			if (StringUtils.isNotBlank(clusterName)) {
-				List<ServiceInstance> sameClusterInstances = serviceInstances.stream()
-						.filter(serviceInstance -> {
-							String cluster = serviceInstance.getMetadata()
-									.get("nacos.cluster");
-							return StringUtils.equals(cluster, clusterName);
-						}).collect(Collectors.toList());
-				if (!CollectionUtils.isEmpty(sameClusterInstances)) {
-					instancesToChoose = sameClusterInstances;
+			NacosInstanceSnapshot snapshot = getSnapshot(serviceInstances);
+			WeightedInstanceIndex index = selectTier(snapshot, clusterName);
+			if (index == null) {
+				index = filter(snapshot.getIndex());
+				if (StringUtils.isNotBlank(clusterName)) {
+					metrics.recordCrossCluster(serviceId);
+					warnCrossCluster(clusterName, serviceInstances.size());
 				}
 			}
-			else {
-				log.warn(
-						"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
-						serviceId, clusterName, serviceInstances);
-			}
 
-			ServiceInstance instance = NacosBalancer
-					.getHostByRandomWeight3(instancesToChoose);
+			ServiceInstance instance = choose(index, request);
+			if (instance == null) {
+				log.warn("No healthy servers with positive weight available for service: "
+						+ this.serviceId);
+				metrics.recordEmptyResponse(serviceId);
+				return new EmptyResponse();
+			}
 
 			return new DefaultResponse(instance);
 		}
@@ -109,4 +136,105 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	}
 
+	/**
+	 * The eligible instances of the nearest tier that has enough of them: the cluster of
+	 * the local instance, then its zone, then its region.
+	 * @return the instances of the tier, or null if all instances should be used
+	 */
+	private WeightedInstanceIndex selectTier(NacosInstanceSnapshot snapshot,
+			String clusterName) {
+		if (StringUtils.isNotBlank(clusterName)) {
+			WeightedInstanceIndex index = accept(snapshot.getClusterIndex(clusterName),
+					snapshot.getClusterSize(clusterName));
+			if (index != null) {
+				return index;
+			}
+		}
+		if (locality == null) {
+			return null;
+		}
+		if (StringUtils.isNotBlank(locality.getZone())) {
+			WeightedInstanceIndex index = accept(
+					snapshot.getZoneIndex(locality.getZone()),
+					snapshot.getZoneSize(locality.getZone()));
+			if (index != null) {
+				return index;
+			}
+		}
+		if (StringUtils.isNotBlank(locality.getRegion())) {
+			return accept(snapshot.getRegionIndex(locality.getRegion()),
+					snapshot.getRegionSize(locality.getRegion()));
+		}
+		return null;
+	}
+
+	private WeightedInstanceIndex accept(WeightedInstanceIndex index, int total) {
+		if (index == null) {
+			return null;
+		}
+		index = filter(index);
+		boolean accepted = locality == null ? !index.isEmpty()
+				: locality.accepts(index.size(), total);
+		return accepted ? index : null;
+	}
+
+	private WeightedInstanceIndex filter(WeightedInstanceIndex index) {
+		return outlierDetector == null ? index : outlierDetector.filter(serviceId, index);
+	}
+
+	/**
+	 * Choose an instance among the eligible instances of the nearest tier, or of all
+	 * instances if no tier has enough of them. Weighted random by default.
+	 * @param index eligible instances
+	 * @param request the load balancer request
+	 * @return the chosen instance, or null if none can be chosen
+	 */
+	protected ServiceInstance choose(WeightedInstanceIndex index, Request<?> request) {
+		return index.choose();
+	}
+
+	/**
+	 * Called when the supplier emitted a new instance list and a new snapshot was built
+	 * from it, before choosing from it.
+	 * @param snapshot the new snapshot
+	 */
+	protected void onSnapshotChanged(NacosInstanceSnapshot snapshot) {
+	}
+
+	protected String getServiceId() {
+		return serviceId;
+	}
+
+	/**
+	 * Cross-cluster calls happen on every request once the local cluster is empty, so
+	 * the warning is emitted at most once per interval with the number of suppressed
+	 * occurrences.
+	 */
+	private void warnCrossCluster(String clusterName, int instanceCount) {
+		long now = System.nanoTime();
+		long last = lastCrossClusterWarn.get();
+		if (now - last < CROSS_CLUSTER_WARN_INTERVAL
+				|| !lastCrossClusterWarn.compareAndSet(last, now)) {
+			suppressedCrossClusterWarns.incrementAndGet();
+			return;
+		}
+		log.warn(
+				"A cross-cluster call occurs，name = {}, clusterName = {}, instances = {}, suppressed = {}",
+				serviceId, clusterName, instanceCount,
+				suppressedCrossClusterWarns.getAndSet(0));
+	}
+
+	private NacosInstanceSnapshot getSnapshot(List<ServiceInstance> serviceInstances) {
+		NacosInstanceSnapshot current = this.snapshot;
+		if (current == null || !current.isBuiltFrom(serviceInstances)) {
+			current = NacosInstanceSnapshot.of(serviceInstances);
+			this.snapshot = current;
+			onSnapshotChanged(current);
+			if (outlierDetector != null) {
+				outlierDetector.retain(serviceId, serviceInstances);
+			}
+		}
+		return current;
+	}
+
 }
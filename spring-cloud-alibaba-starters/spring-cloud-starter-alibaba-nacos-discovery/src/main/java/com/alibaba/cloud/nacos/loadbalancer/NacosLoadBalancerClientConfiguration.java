@@ -16,8 +16,11 @@
 
 package com.alibaba.cloud.nacos.loadbalancer;
 
+import com.alibaba.cloud.nacos.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -41,7 +44,21 @@ import org.springframework.core.env.Environment;
  * <br>
  * 1. LoadBalancerCache causes information such as the weight of the service instance to
  * be changed without immediate effect.<br>
- * 2. Nacos itself supports caching.
+ * 2. Nacos itself supports caching.<br>
+ * <br>
+ * With {@code spring.cloud.loadbalancer.configurations=nacos-subscribe}, instances are
+ * pushed by Nacos through {@link NacosServiceInstanceListSupplier} instead of being
+ * queried on every request.<br>
+ * <br>
+ * {@code spring.cloud.loadbalancer.nacos.strategy} selects how an instance is chosen:
+ * {@code weighted-random} (default), {@code least-response-time} or
+ * {@code consistent-hash}. With
+ * {@code spring.cloud.loadbalancer.nacos.outlier-detection.enabled=true} the instances
+ * failing repeatedly are ejected for a while whatever the strategy. The instances of the
+ * same cluster are preferred, then with
+ * {@code spring.cloud.loadbalancer.nacos.locality.enabled=true} the instances of the
+ * same zone ({@code zone} metadata), then region ({@code region} metadata), see
+ * {@link NacosLocality}.
  *
  * @author XuDaojie
  * @since 2021.1
@@ -54,14 +71,85 @@ public class NacosLoadBalancerClientConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.strategy", havingValue = "weighted-random", matchIfMissing = true)
 	public ReactorLoadBalancer<ServiceInstance> nacosLoadBalancer(Environment environment,
 			LoadBalancerClientFactory loadBalancerClientFactory,
-			NacosDiscoveryProperties nacosDiscoveryProperties) {
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			ObjectProvider<NacosDiscoveryMetrics> metrics,
+			ObjectProvider<NacosOutlierDetector> outlierDetector,
+			ObjectProvider<NacosLocality> locality) {
 		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
-		return new NacosLoadBalancer(
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(
 				loadBalancerClientFactory.getLazyProvider(name,
 						ServiceInstanceListSupplier.class),
 				name, nacosDiscoveryProperties);
+		metrics.ifAvailable(loadBalancer::setMetrics);
+		outlierDetector.ifAvailable(loadBalancer::setOutlierDetector);
+		locality.ifAvailable(loadBalancer::setLocality);
+		return loadBalancer;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.strategy", havingValue = "least-response-time")
+	public ReactorLoadBalancer<ServiceInstance> nacosLeastResponseTimeLoadBalancer(
+			Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosLoadBalancerStats nacosLoadBalancerStats,
+			ObjectProvider<NacosDiscoveryMetrics> metrics,
+			ObjectProvider<NacosOutlierDetector> outlierDetector,
+			ObjectProvider<NacosLocality> locality) {
+		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		NacosLoadBalancer loadBalancer = new NacosLeastResponseTimeLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(name,
+						ServiceInstanceListSupplier.class),
+				name, nacosDiscoveryProperties, nacosLoadBalancerStats);
+		metrics.ifAvailable(loadBalancer::setMetrics);
+		outlierDetector.ifAvailable(loadBalancer::setOutlierDetector);
+		locality.ifAvailable(loadBalancer::setLocality);
+		return loadBalancer;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.strategy", havingValue = "consistent-hash")
+	public ReactorLoadBalancer<ServiceInstance> nacosConsistentHashLoadBalancer(
+			Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosLoadBalancerProperties nacosLoadBalancerProperties,
+			ObjectProvider<NacosDiscoveryMetrics> metrics,
+			ObjectProvider<NacosOutlierDetector> outlierDetector,
+			ObjectProvider<NacosLocality> locality) {
+		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		NacosLoadBalancer loadBalancer = new NacosConsistentHashLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(name,
+						ServiceInstanceListSupplier.class),
+				name, nacosDiscoveryProperties,
+				nacosLoadBalancerProperties.getHashHeader(),
+				nacosLoadBalancerProperties.getHashCookie(),
+				nacosLoadBalancerProperties.getVirtualNodes());
+		metrics.ifAvailable(loadBalancer::setMetrics);
+		outlierDetector.ifAvailable(loadBalancer::setOutlierDetector);
+		locality.ifAvailable(loadBalancer::setLocality);
+		return loadBalancer;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@Order(REACTIVE_SERVICE_INSTANCE_SUPPLIER_ORDER - 1)
+	public static class NacosSubscribeSupportConfiguration {
+
+		@Bean
+		@ConditionalOnBean(NacosServiceManager.class)
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(value = "spring.cloud.loadbalancer.configurations", havingValue = "nacos-subscribe")
+		public ServiceInstanceListSupplier nacosServiceInstanceListSupplier(
+				Environment environment, NacosServiceManager nacosServiceManager,
+				NacosDiscoveryProperties nacosDiscoveryProperties) {
+			String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+			return new NacosServiceInstanceListSupplier(name, nacosServiceManager,
+					nacosDiscoveryProperties);
+		}
+
 	}
 
 	@Configuration(proxyBeanMethods = false)
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the strategy, the locality and the outlier detection of the Nacos load
+ * balancers.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+@ConfigurationProperties(NacosLoadBalancerProperties.PREFIX)
+public class NacosLoadBalancerProperties {
+
+	/**
+	 * Prefix of {@link NacosLoadBalancerProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.loadbalancer.nacos";
+
+	/**
+	 * How an instance is chosen: weighted-random, least-response-time or
+	 * consistent-hash.
+	 */
+	private String strategy = "weighted-random";
+
+	/**
+	 * With the consistent-hash strategy, requests with the same value of this header go
+	 * to the same instance.
+	 */
+	private String hashHeader;
+
+	/**
+	 * With the consistent-hash strategy, the cookie used as the key when the header is
+	 * absent.
+	 */
+	private String hashCookie;
+
+	/**
+	 * With the consistent-hash strategy, points on the hash ring of an instance of
+	 * weight 1.
+	 */
+	private int virtualNodes = NacosConsistentHashLoadBalancer.DEFAULT_VIRTUAL_NODES;
+
+	private Locality locality = new Locality();
+
+	private OutlierDetection outlierDetection = new OutlierDetection();
+
+	public String getStrategy() {
+		return strategy;
+	}
+
+	public void setStrategy(String strategy) {
+		this.strategy = strategy;
+	}
+
+	public String getHashHeader() {
+		return hashHeader;
+	}
+
+	public void setHashHeader(String hashHeader) {
+		this.hashHeader = hashHeader;
+	}
+
+	public String getHashCookie() {
+		return hashCookie;
+	}
+
+	public void setHashCookie(String hashCookie) {
+		this.hashCookie = hashCookie;
+	}
+
+	public int getVirtualNodes() {
+		return virtualNodes;
+	}
+
+	public void setVirtualNodes(int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+	}
+
+	public Locality getLocality() {
+		return locality;
+	}
+
+	public void setLocality(Locality locality) {
+		this.locality = locality;
+	}
+
+	public OutlierDetection getOutlierDetection() {
+		return outlierDetection;
+	}
+
+	public void setOutlierDetection(OutlierDetection outlierDetection) {
+		this.outlierDetection = outlierDetection;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosLoadBalancerProperties{" + "strategy='" + strategy + '\''
+				+ ", hashHeader='" + hashHeader + '\'' + ", hashCookie='" + hashCookie
+				+ '\'' + ", virtualNodes=" + virtualNodes + ", locality=" + locality
+				+ ", outlierDetection=" + outlierDetection + '}';
+	}
+
+	/**
+	 * See {@link NacosLocality}.
+	 */
+	public static class Locality {
+
+		/**
+		 * Prefer the instances of the same zone, then of the same region.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Zone of the local instance, defaults to its 'zone' metadata.
+		 */
+		private String zone;
+
+		/**
+		 * Region of the local instance, defaults to its 'region' metadata.
+		 */
+		private String region;
+
+		/**
+		 * Min percentage of eligible instances of a tier for it to be used.
+		 */
+		private int minHealthyPercent = 0;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getZone() {
+			return zone;
+		}
+
+		public void setZone(String zone) {
+			this.zone = zone;
+		}
+
+		public String getRegion() {
+			return region;
+		}
+
+		public void setRegion(String region) {
+			this.region = region;
+		}
+
+		public int getMinHealthyPercent() {
+			return minHealthyPercent;
+		}
+
+		public void setMinHealthyPercent(int minHealthyPercent) {
+			this.minHealthyPercent = minHealthyPercent;
+		}
+
+		@Override
+		public String toString() {
+			return "Locality{" + "enabled=" + enabled + ", zone='" + zone + '\''
+					+ ", region='" + region + '\'' + ", minHealthyPercent="
+					+ minHealthyPercent + '}';
+		}
+
+	}
+
+	/**
+	 * See {@link NacosOutlierDetector}.
+	 */
+	public static class OutlierDetection {
+
+		/**
+		 * Eject the instances failing several requests in a row for a while.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Failures in a row that eject an instance.
+		 */
+		private int consecutiveFailures = 5;
+
+		/**
+		 * Duration in milliseconds of the first ejection.
+		 */
+		private long baseEjectionTime = 30000;
+
+		/**
+		 * Max duration in milliseconds of an ejection.
+		 */
+		private long maxEjectionTime = 300000;
+
+		/**
+		 * Max percentage of the instances of a service ejected at a time.
+		 */
+		private int maxEjectionPercent = 50;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getConsecutiveFailures() {
+			return consecutiveFailures;
+		}
+
+		public void setConsecutiveFailures(int consecutiveFailures) {
+			this.consecutiveFailures = consecutiveFailures;
+		}
+
+		public long getBaseEjectionTime() {
+			return baseEjectionTime;
+		}
+
+		public void setBaseEjectionTime(long baseEjectionTime) {
+			this.baseEjectionTime = baseEjectionTime;
+		}
+
+		public long getMaxEjectionTime() {
+			return maxEjectionTime;
+		}
+
+		public void setMaxEjectionTime(long maxEjectionTime) {
+			this.maxEjectionTime = maxEjectionTime;
+		}
+
+		public int getMaxEjectionPercent() {
+			return maxEjectionPercent;
+		}
+
+		public void setMaxEjectionPercent(int maxEjectionPercent) {
+			this.maxEjectionPercent = maxEjectionPercent;
+		}
+
+		@Override
+		public String toString() {
+			return "OutlierDetection{" + "enabled=" + enabled + ", consecutiveFailures="
+					+ consecutiveFailures + ", baseEjectionTime=" + baseEjectionTime
+					+ ", maxEjectionTime=" + maxEjectionTime + ", maxEjectionPercent="
+					+ maxEjectionPercent + '}';
+		}
+
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Statistics of the calls to each instance, fed by
+ * {@link NacosLoadBalancerStatsLifecycle} and {@link NacosOutlierDetectionLifecycle} and
+ * shared by all the load balancers of a service. Every counter is updated with atomic
+ * operations, recording never blocks.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosLoadBalancerStats {
+
+	/**
+	 * Default time for an observed latency to lose most of its influence.
+	 */
+	public static final long DEFAULT_DECAY_TIME = TimeUnit.SECONDS.toMillis(10);
+
+	private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Cost of an instance that was never called, the same as one without latency nor
+	 * request in flight, see {@link InstanceStats#getCost()}.
+	 */
+	public static final double UNKNOWN_COST = MIN_LATENCY_NANOS;
+
+	private final long decayNanos;
+
+	private final ConcurrentMap<String, ConcurrentMap<String, InstanceStats>> services = new ConcurrentHashMap<>();
+
+	public NacosLoadBalancerStats() {
+		this(DEFAULT_DECAY_TIME);
+	}
+
+	/**
+	 * @param decayTime time for an observed latency to lose most of its influence, in
+	 * milliseconds
+	 */
+	public NacosLoadBalancerStats(long decayTime) {
+		this.decayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, decayTime));
+	}
+
+	/**
+	 * Get the statistics of an instance, creating them on first use.
+	 * @param serviceInstance the instance
+	 * @return statistics of the instance
+	 */
+	public InstanceStats get(ServiceInstance serviceInstance) {
+		return services
+				.computeIfAbsent(serviceInstance.getServiceId(),
+						serviceId -> new ConcurrentHashMap<>())
+				.computeIfAbsent(keyOf(serviceInstance),
+						key -> new InstanceStats(decayNanos));
+	}
+
+	/**
+	 * Get the statistics of an instance without creating them.
+	 * @param serviceInstance the instance
+	 * @return statistics of the instance, or null if it was never called
+	 */
+	public InstanceStats peek(ServiceInstance serviceInstance) {
+		ConcurrentMap<String, InstanceStats> instances = services
+				.get(serviceInstance.getServiceId());
+		return instances == null ? null : instances.get(keyOf(serviceInstance));
+	}
+
+	/**
+	 * Drop the statistics of the instances of a service that are not in the given list
+	 * anymore.
+	 * @param serviceId id of the service
+	 * @param serviceInstances current instances of the service
+	 */
+	public void retain(String serviceId,
+			Collection<? extends ServiceInstance> serviceInstances) {
+		ConcurrentMap<String, InstanceStats> instances = services.get(serviceId);
+		if (instances == null) {
+			return;
+		}
+		Set<String> keys = new HashSet<>((int) (serviceInstances.size() / 0.75F) + 1);
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			keys.add(keyOf(serviceInstance));
+		}
+		instances.keySet().retainAll(keys);
+	}
+
+	static String keyOf(ServiceInstance serviceInstance) {
+		return serviceInstance.getHost() + ":" + serviceInstance.getPort();
+	}
+
+	/**
+	 * Statistics of the calls to one instance: the requests in flight and a peak
+	 * sensitive, exponentially weighted moving average of the latency. A latency higher
+	 * than the average replaces it at once, lower ones are blended in, and the average
+	 * decays while no call completes, so a slow instance is avoided at once and tried
+	 * again after a while.
+	 */
+	public static final class InstanceStats {
+
+		private final long decayNanos;
+
+		private final AtomicInteger outstanding = new AtomicInteger();
+
+		private final AtomicLong ewma = new AtomicLong(Double.doubleToRawLongBits(0D));
+
+		private volatile long lastUpdate = System.nanoTime();
+
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		private final AtomicInteger ejections = new AtomicInteger();
+
+		private volatile long ejectedUntil;
+
+		InstanceStats(long decayNanos) {
+			this.decayNanos = decayNanos;
+		}
+
+		/**
+		 * A request to the instance started.
+		 */
+		public void onStart() {
+			outstanding.incrementAndGet();
+		}
+
+		/**
+		 * A request to the instance completed.
+		 * @param latencyNanos latency of the request, negative if unknown
+		 */
+		public void onComplete(long latencyNanos) {
+			outstanding.updateAndGet(count -> count > 0 ? count - 1 : 0);
+			if (latencyNanos >= 0) {
+				observe(latencyNanos);
+			}
+		}
+
+		private void observe(double latency) {
+			long now = System.nanoTime();
+			double weight = decay(now - lastUpdate);
+			lastUpdate = now;
+			ewma.updateAndGet(bits -> {
+				double average = Double.longBitsToDouble(bits);
+				double next = latency > average ? latency
+						: average * weight + latency * (1D - weight);
+				return Double.doubleToRawLongBits(next);
+			});
+		}
+
+		private double decay(long elapsed) {
+			return Math.exp(-(double) Math.max(0, elapsed) / decayNanos);
+		}
+
+		AtomicInteger getConsecutiveFailures() {
+			return consecutiveFailures;
+		}
+
+		AtomicInteger getEjections() {
+			return ejections;
+		}
+
+		long getEjectedUntil() {
+			return ejectedUntil;
+		}
+
+		void setEjectedUntil(long ejectedUntil) {
+			this.ejectedUntil = ejectedUntil;
+		}
+
+		/**
+		 * @param now current {@link System#nanoTime()}
+		 * @return whether the instance is ejected by outlier detection
+		 */
+		public boolean isEjected(long now) {
+			long until = ejectedUntil;
+			return until != 0 && now - until < 0;
+		}
+
+		/**
+		 * @return number of requests in flight
+		 */
+		public int getOutstanding() {
+			return outstanding.get();
+		}
+
+		/**
+		 * @return the average latency in nanoseconds, decayed to now
+		 */
+		public double getLatency() {
+			return Double.longBitsToDouble(ewma.get())
+					* decay(System.nanoTime() - lastUpdate);
+		}
+
+		/**
+		 * Expected cost of sending one more request: the average latency, at least one
+		 * millisecond so that unknown instances are not free, times the requests that
+		 * would be in flight.
+		 * @return the cost, lower is better
+		 */
+		public double getCost() {
+			double latency = Math.max(getLatency(), MIN_LATENCY_NANOS);
+			return latency * (getOutstanding() + 1);
+		}
+
+	}
+
+}
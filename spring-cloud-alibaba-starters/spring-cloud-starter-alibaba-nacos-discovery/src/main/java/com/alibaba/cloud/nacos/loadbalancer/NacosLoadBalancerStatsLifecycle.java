@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * {@link LoadBalancerLifecycle} recording the requests in flight and the latency of
+ * every instance in {@link NacosLoadBalancerStats}. Only successful requests contribute
+ * to the latency, failures are left to the health of the instance in Nacos.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosLoadBalancerStatsLifecycle
+		implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	/**
+	 * Start time of a request not started yet, {@link System#nanoTime()} may be
+	 * negative so no other value can tell it.
+	 */
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	private final NacosLoadBalancerStats stats;
+
+	public NacosLoadBalancerStatsLifecycle(NacosLoadBalancerStats stats) {
+		this.stats = stats;
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+		if (request.getContext() instanceof TimedRequestContext) {
+			((TimedRequestContext) request.getContext())
+					.setRequestStartTime(NOT_STARTED);
+		}
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+		if (request.getContext() instanceof TimedRequestContext) {
+			((TimedRequestContext) request.getContext())
+					.setRequestStartTime(System.nanoTime());
+		}
+		if (lbResponse != null && lbResponse.hasServer()) {
+			stats.get(lbResponse.getServer()).onStart();
+		}
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext
+				.getLoadBalancerResponse();
+		if (completionContext.status() == CompletionContext.Status.DISCARD
+				|| lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		long latency = -1;
+		Request<Object> request = completionContext.getLoadBalancerRequest();
+		if (completionContext.status() == CompletionContext.Status.SUCCESS
+				&& request != null
+				&& request.getContext() instanceof TimedRequestContext) {
+			long startTime = ((TimedRequestContext) request.getContext())
+					.getRequestStartTime();
+			if (startTime != NOT_STARTED) {
+				latency = System.nanoTime() - startTime;
+			}
+		}
+		stats.get(lbResponse.getServer()).onComplete(latency);
+	}
+
+}
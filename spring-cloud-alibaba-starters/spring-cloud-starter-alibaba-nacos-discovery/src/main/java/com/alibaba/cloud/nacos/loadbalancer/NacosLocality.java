@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+/**
+ * Location of the local instance, used by {@link NacosLoadBalancer} to prefer the
+ * instances of the same cluster, then of the same zone, then of the same region, before
+ * all instances.
+ * <p>
+ * A tier is used only while its eligible instances are at least
+ * {@code minHealthyPercent} percent of all of its instances, eligible or not, so traffic
+ * spills over to the next tier before the local one is completely empty.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosLocality {
+
+	private final String zone;
+
+	private final String region;
+
+	private final int minHealthyPercent;
+
+	/**
+	 * @param zone zone of the local instance, nullable
+	 * @param region region of the local instance, nullable
+	 * @param minHealthyPercent min percentage of eligible instances of a tier, 0 to spill
+	 * over only when a tier has no eligible instance
+	 */
+	public NacosLocality(String zone, String region, int minHealthyPercent) {
+		this.zone = zone;
+		this.region = region;
+		this.minHealthyPercent = Math.max(0, Math.min(100, minHealthyPercent));
+	}
+
+	public String getZone() {
+		return zone;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public int getMinHealthyPercent() {
+		return minHealthyPercent;
+	}
+
+	/**
+	 * Whether a tier can be used.
+	 * @param eligible number of eligible instances in the tier
+	 * @param total number of instances in the tier, eligible or not
+	 * @return true if the tier has enough eligible instances
+	 */
+	public boolean accepts(int eligible, int total) {
+		return eligible > 0 && (long) eligible * 100 >= (long) total * minHealthyPercent;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosLocality{" + "zone='" + zone + '\'' + ", region='" + region + '\''
+				+ ", minHealthyPercent=" + minHealthyPercent + '}';
+	}
+
+}
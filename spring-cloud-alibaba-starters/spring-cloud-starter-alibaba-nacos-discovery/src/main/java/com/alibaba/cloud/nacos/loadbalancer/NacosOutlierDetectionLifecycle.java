@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpStatus;
+
+/**
+ * {@link LoadBalancerLifecycle} reporting the outcome of every request to the
+ * {@link NacosOutlierDetector}. A request fails when it throws, including timeouts, or
+ * when the instance answers with a 5xx status.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosOutlierDetectionLifecycle
+		implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	private final NacosOutlierDetector outlierDetector;
+
+	public NacosOutlierDetectionLifecycle(NacosOutlierDetector outlierDetector) {
+		this.outlierDetector = outlierDetector;
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext
+				.getLoadBalancerResponse();
+		if (lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		switch (completionContext.status()) {
+		case FAILED:
+			outlierDetector.onFailure(lbResponse.getServer());
+			break;
+		case SUCCESS:
+			if (isServerError(completionContext.getClientResponse())) {
+				outlierDetector.onFailure(lbResponse.getServer());
+			}
+			else {
+				outlierDetector.onSuccess(lbResponse.getServer());
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static boolean isServerError(Object clientResponse) {
+		if (!(clientResponse instanceof ResponseData)) {
+			return false;
+		}
+		HttpStatus status = ((ResponseData) clientResponse).getHttpStatus();
+		return status != null && status.is5xxServerError();
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Passive outlier detection: an instance failing a number of requests in a row is
+ * ejected from load balancing for a while, twice as long at each new ejection up to a
+ * max, and at most a percentage of the instances of a service is ejected at a time.
+ * <p>
+ * The state lives in the shared {@link NacosLoadBalancerStats}, so every load balancer
+ * of a service sees the same ejections. The filtered instances are cached per index of
+ * a service until an ejection starts or ends, so the request path only checks a version.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosOutlierDetector {
+
+	private final NacosLoadBalancerStats stats;
+
+	private final int consecutiveFailures;
+
+	private final long baseEjectionNanos;
+
+	private final long maxEjectionNanos;
+
+	private final int maxEjectionPercent;
+
+	private final ConcurrentMap<String, ServiceState> services = new ConcurrentHashMap<>();
+
+	/**
+	 * @param stats shared statistics
+	 * @param consecutiveFailures failures in a row that eject an instance
+	 * @param baseEjectionTime duration of the first ejection, in milliseconds
+	 * @param maxEjectionTime max duration of an ejection, in milliseconds
+	 * @param maxEjectionPercent max percentage of the instances of a service ejected at
+	 * a time
+	 */
+	public NacosOutlierDetector(NacosLoadBalancerStats stats, int consecutiveFailures,
+			long baseEjectionTime, long maxEjectionTime, int maxEjectionPercent) {
+		this.stats = stats;
+		this.consecutiveFailures = Math.max(1, consecutiveFailures);
+		this.baseEjectionNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, baseEjectionTime));
+		this.maxEjectionNanos = Math.max(baseEjectionNanos,
+				TimeUnit.MILLISECONDS.toNanos(maxEjectionTime));
+		this.maxEjectionPercent = Math.max(0, Math.min(100, maxEjectionPercent));
+	}
+
+	/**
+	 * A request to the instance succeeded.
+	 * @param serviceInstance the instance
+	 */
+	public void onSuccess(ServiceInstance serviceInstance) {
+		NacosLoadBalancerStats.InstanceStats instanceStats = stats.peek(serviceInstance);
+		if (instanceStats == null) {
+			return;
+		}
+		if (instanceStats.getConsecutiveFailures().get() != 0) {
+			instanceStats.getConsecutiveFailures().set(0);
+		}
+		// forget past ejections once the instance stayed healthy for a while
+		long until = instanceStats.getEjectedUntil();
+		if (until != 0 && System.nanoTime() - until > maxEjectionNanos) {
+			instanceStats.getEjections().set(0);
+			instanceStats.setEjectedUntil(0);
+		}
+	}
+
+	/**
+	 * A request to the instance failed.
+	 * @param serviceInstance the instance
+	 */
+	public void onFailure(ServiceInstance serviceInstance) {
+		NacosLoadBalancerStats.InstanceStats instanceStats = stats.get(serviceInstance);
+		int failures = instanceStats.getConsecutiveFailures().incrementAndGet();
+		long now = System.nanoTime();
+		if (failures < consecutiveFailures || instanceStats.isEjected(now)
+				// only the thread reaching the threshold ejects
+				|| !instanceStats.getConsecutiveFailures().compareAndSet(failures, 0)) {
+			return;
+		}
+		int ejections = instanceStats.getEjections().incrementAndGet();
+		long duration = baseEjectionNanos << Math.min(ejections - 1, 20);
+		instanceStats.setEjectedUntil(
+				now + (duration <= 0 ? maxEjectionNanos : Math.min(duration, maxEjectionNanos)));
+		state(serviceInstance.getServiceId()).version.incrementAndGet();
+	}
+
+	/**
+	 * Remove the ejected instances from the given ones.
+	 * @param serviceId id of the service
+	 * @param index eligible instances
+	 * @return the instances that are not ejected
+	 */
+	public WeightedInstanceIndex filter(String serviceId, WeightedInstanceIndex index) {
+		ServiceState state = services.get(serviceId);
+		if (state == null) {
+			return index;
+		}
+		long version = state.version.get();
+		long now = System.nanoTime();
+		View view = state.views.get(index);
+		if (view != null && view.version == version && now - view.validUntil < 0) {
+			return view.filtered;
+		}
+		view = buildView(index, version, now);
+		state.views.put(index, view);
+		return view.filtered;
+	}
+
+	/**
+	 * Drop the state of the instances of a service that are not in the given list
+	 * anymore.
+	 * @param serviceId id of the service
+	 * @param serviceInstances current instances of the service
+	 */
+	public void retain(String serviceId,
+			Collection<? extends ServiceInstance> serviceInstances) {
+		stats.retain(serviceId, serviceInstances);
+		ServiceState state = services.get(serviceId);
+		if (state != null) {
+			// the indexes of the previous instance list are not used anymore
+			state.views.clear();
+		}
+	}
+
+	private View buildView(WeightedInstanceIndex index, long version, long now) {
+		int size = index.size();
+		int maxEjected = size * maxEjectionPercent / 100;
+		List<ServiceInstance> kept = new ArrayList<>(size);
+		List<ServiceInstance> ejected = new ArrayList<>();
+		long validUntil = now + maxEjectionNanos;
+		for (int i = 0; i < size; i++) {
+			ServiceInstance serviceInstance = index.getInstance(i);
+			NacosLoadBalancerStats.InstanceStats instanceStats = stats
+					.peek(serviceInstance);
+			if (instanceStats != null && instanceStats.isEjected(now)) {
+				ejected.add(serviceInstance);
+				if (instanceStats.getEjectedUntil() - validUntil < 0) {
+					validUntil = instanceStats.getEjectedUntil();
+				}
+			}
+			else {
+				kept.add(serviceInstance);
+			}
+		}
+		if (ejected.isEmpty()) {
+			return new View(version, validUntil, index);
+		}
+		if (ejected.size() > maxEjected) {
+			// over the guard, the instances ejected the longest ago come back first
+			ejected.sort((a, b) -> Long.compare(stats.get(a).getEjectedUntil(),
+					stats.get(b).getEjectedUntil()));
+			kept.addAll(ejected.subList(0, ejected.size() - maxEjected));
+		}
+		return new View(version, validUntil, WeightedInstanceIndex.of(kept));
+	}
+
+	private ServiceState state(String serviceId) {
+		return services.computeIfAbsent(serviceId, key -> new ServiceState());
+	}
+
+	private static final class ServiceState {
+
+		private final AtomicLong version = new AtomicLong();
+
+		// keyed by identity, an index being built once per instance list
+		private final Map<WeightedInstanceIndex, View> views = new ConcurrentHashMap<>();
+
+	}
+
+	private static final class View {
+
+		private final long version;
+
+		private final long validUntil;
+
+		private final WeightedInstanceIndex filtered;
+
+		private View(long version, long validUntil, WeightedInstanceIndex filtered) {
+			this.version = version;
+			this.validUntil = validUntil;
+			this.filtered = filtered;
+		}
+
+	}
+
+}
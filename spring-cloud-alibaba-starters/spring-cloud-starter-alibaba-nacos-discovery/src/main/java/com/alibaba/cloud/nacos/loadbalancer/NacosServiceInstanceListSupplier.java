@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.Event;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * {@link ServiceInstanceListSupplier} backed by {@link NamingService#subscribe}.
+ * <p>
+ * Instances are converted once per {@link NamingEvent} and the resulting immutable list
+ * is replayed to every subscriber until the next event, so the request path neither
+ * blocks on Nacos nor re-converts instances.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosServiceInstanceListSupplier
+		implements ServiceInstanceListSupplier, DisposableBean {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServiceInstanceListSupplier.class);
+
+	private final String serviceId;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final Sinks.Many<List<ServiceInstance>> instances = Sinks.many().replay()
+			.latest();
+
+	private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+	/**
+	 * Guarded by this, true once a {@link NamingEvent} was emitted so that a late seed
+	 * does not overwrite newer instances.
+	 */
+	private boolean eventEmitted;
+
+	private final EventListener eventListener = new EventListener() {
+		@Override
+		public void onEvent(Event event) {
+			if (event instanceof NamingEvent) {
+				emit(convert(((NamingEvent) event).getInstances()), true);
+			}
+		}
+	};
+
+	public NacosServiceInstanceListSupplier(String serviceId,
+			NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this.serviceId = serviceId;
+		this.nacosServiceManager = nacosServiceManager;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public Flux<List<ServiceInstance>> get() {
+		if (subscribed.compareAndSet(false, true)) {
+			Schedulers.boundedElastic().schedule(this::subscribe);
+		}
+		return instances.asFlux();
+	}
+
+	private void subscribe() {
+		String group = nacosDiscoveryProperties.getGroup();
+		try {
+			NamingService namingService = nacosServiceManager.getNamingService();
+			namingService.subscribe(serviceId, group, eventListener);
+			// seed from the subscription cache, the listener is not guaranteed to fire
+			// when the service was already subscribed by another component.
+			emit(convert(namingService.selectInstances(serviceId, group, true)), false);
+		}
+		catch (Exception e) {
+			log.error("subscribe service[{}] from nacos error!", serviceId, e);
+			emit(Collections.emptyList(), false);
+			// let the next call retry
+			subscribed.set(false);
+		}
+	}
+
+	private List<ServiceInstance> convert(List<Instance> nacosInstances) {
+		return Collections.unmodifiableList(
+				NacosServiceDiscovery.hostToServiceInstanceList(nacosInstances, serviceId));
+	}
+
+	private synchronized void emit(List<ServiceInstance> serviceInstances,
+			boolean fromEvent) {
+		if (!fromEvent && eventEmitted) {
+			return;
+		}
+		eventEmitted |= fromEvent;
+		instances.emitNext(serviceInstances,
+				(signalType, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+	}
+
+	@Override
+	public void destroy() {
+		if (subscribed.compareAndSet(true, false)) {
+			try {
+				nacosServiceManager.getNamingService().unsubscribe(serviceId,
+						nacosDiscoveryProperties.getGroup(), eventListener);
+			}
+			catch (Exception e) {
+				log.error("unsubscribe service[{}] from nacos error!", serviceId, e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.registry;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+/**
+ * Drain-aware deregistration. On {@link ContextClosedEvent}, which is published before
+ * the web server and the other lifecycle beans are stopped, the instance is marked
+ * {@code DOWN}, peers are given the propagation window to stop routing to it, in-flight
+ * requests are awaited and only then is the instance deregistered.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosGracefulShutdown
+		implements ApplicationListener<ContextClosedEvent>, ApplicationContextAware {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosGracefulShutdown.class);
+
+	private final NacosServiceRegistry serviceRegistry;
+
+	private final ObjectProvider<NacosRegistration> registration;
+
+	private final NacosInflightRequestCounter counter;
+
+	private final NacosDiscoveryProperties properties;
+
+	private ApplicationContext applicationContext;
+
+	public NacosGracefulShutdown(NacosServiceRegistry serviceRegistry,
+			ObjectProvider<NacosRegistration> registration,
+			NacosInflightRequestCounter counter, NacosDiscoveryProperties properties) {
+		this.serviceRegistry = serviceRegistry;
+		this.registration = registration;
+		this.counter = counter;
+		this.properties = properties;
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	@Override
+	public void onApplicationEvent(ContextClosedEvent event) {
+		// child contexts, e.g. of load balancer clients, close on their own
+		if (event.getApplicationContext() != applicationContext) {
+			return;
+		}
+		NacosRegistration nacosRegistration = registration.getIfAvailable();
+		if (nacosRegistration == null || serviceRegistry
+				.getRegistrationStatus() != NacosRegistrationStatus.REGISTERED) {
+			return;
+		}
+		shutdown(nacosRegistration);
+	}
+
+	void shutdown(NacosRegistration nacosRegistration) {
+		log.info("Nacos graceful shutdown, mark {} {}:{} down.",
+				nacosRegistration.getServiceId(), nacosRegistration.getHost(),
+				nacosRegistration.getPort());
+		try {
+			serviceRegistry.setStatus(nacosRegistration, "DOWN");
+		}
+		catch (Exception e) {
+			log.warn("Nacos graceful shutdown, mark down failed, deregister directly.",
+					e);
+			serviceRegistry.deregister(nacosRegistration);
+			return;
+		}
+		try {
+			Thread.sleep(properties.getGracefulShutdownPropagationWindow());
+			if (!counter.awaitDrained(properties.getGracefulShutdownDrainTimeout())) {
+				log.warn(
+						"Nacos graceful shutdown, {} requests still in flight after {} ms.",
+						counter.getInflightRequests(),
+						properties.getGracefulShutdownDrainTimeout());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		serviceRegistry.deregister(nacosRegistration);
+	}
+
+}
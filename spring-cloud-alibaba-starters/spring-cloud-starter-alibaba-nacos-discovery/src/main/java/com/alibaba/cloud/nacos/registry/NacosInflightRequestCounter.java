@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the requests being served, so that {@link NacosGracefulShutdown} can wait for
+ * them to drain before deregistering.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosInflightRequestCounter {
+
+	private final AtomicInteger inflightRequests = new AtomicInteger();
+
+	/**
+	 * Only waited on and notified while draining, requests never take it otherwise.
+	 */
+	private final Object monitor = new Object();
+
+	private volatile boolean draining;
+
+	/**
+	 * Called when a request starts.
+	 */
+	public void begin() {
+		inflightRequests.incrementAndGet();
+	}
+
+	/**
+	 * Called when a request completes, successfully or not.
+	 */
+	public void end() {
+		if (inflightRequests.updateAndGet(count -> count > 0 ? count - 1 : 0) == 0
+				&& draining) {
+			synchronized (monitor) {
+				monitor.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * @return number of requests being served
+	 */
+	public int getInflightRequests() {
+		return inflightRequests.get();
+	}
+
+	/**
+	 * Wait until no request is being served.
+	 * @param timeout max time to wait, in milliseconds
+	 * @return true if drained, false if the timeout elapsed first
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean awaitDrained(long timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		draining = true;
+		synchronized (monitor) {
+			while (inflightRequests.get() > 0) {
+				long remaining = TimeUnit.NANOSECONDS
+						.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					return false;
+				}
+				monitor.wait(remaining);
+			}
+			return true;
+		}
+	}
+
+}
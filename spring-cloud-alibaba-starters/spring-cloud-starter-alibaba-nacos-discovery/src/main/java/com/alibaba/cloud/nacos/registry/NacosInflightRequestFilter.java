@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.registry;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.springframework.core.Ordered;
+
+/**
+ * Servlet {@link Filter} feeding a {@link NacosInflightRequestCounter}. Asynchronous
+ * requests are counted until they complete.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public class NacosInflightRequestFilter implements Filter, Ordered {
+
+	private final NacosInflightRequestCounter counter;
+
+	public NacosInflightRequestFilter(NacosInflightRequestCounter counter) {
+		this.counter = counter;
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response,
+			FilterChain chain) throws IOException, ServletException {
+		counter.begin();
+		boolean async = false;
+		try {
+			chain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new CountingAsyncListener());
+				async = true;
+			}
+		}
+		finally {
+			if (!async) {
+				counter.end();
+			}
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	private final class CountingAsyncListener implements AsyncListener {
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			counter.end();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+
+	}
+
+}
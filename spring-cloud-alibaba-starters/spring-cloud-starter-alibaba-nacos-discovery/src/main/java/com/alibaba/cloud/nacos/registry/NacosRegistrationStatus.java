@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+/**
+ * Registration state of the local instance, tracked by {@link NacosServiceRegistry}.
+ *
+ * @author freeman
+ * @since 2021.0.4.0
+ */
+public enum NacosRegistrationStatus {
+
+	/**
+	 * Not registered yet, or deregistered.
+	 */
+	NOT_REGISTERED,
+
+	/**
+	 * Registration is in progress or waiting for a retry.
+	 */
+	REGISTERING,
+
+	/**
+	 * Registered to Nacos.
+	 */
+	REGISTERED,
+
+	/**
+	 * Registration failed and will not be retried.
+	 */
+	FAILED
+
+}
@@ -18,10 +18,17 @@ package com.alibaba.cloud.nacos.registry;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosLocalInstanceChangedEvent;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
@@ -30,6 +37,7 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.cloud.client.serviceregistry.ServiceRegistry;
+import org.springframework.context.ApplicationListener;
 
 import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
 
@@ -37,8 +45,10 @@ import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
  * @author xiaojing
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @author <a href="mailto:78552423@qq.com">eshun</a>
+ * @author freeman
  */
-public class NacosServiceRegistry implements ServiceRegistry<Registration> {
+public class NacosServiceRegistry implements ServiceRegistry<Registration>,
+		ApplicationListener<NacosLocalInstanceChangedEvent> {
 
 	private static final String STATUS_UP = "UP";
 
@@ -50,6 +60,22 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 
 	private final NacosServiceManager nacosServiceManager;
 
+	private final AtomicInteger registrationAttempts = new AtomicInteger();
+
+	private volatile NacosRegistrationStatus registrationStatus = NacosRegistrationStatus.NOT_REGISTERED;
+
+	private volatile Exception lastRegistrationError;
+
+	private ScheduledExecutorService registrationExecutor;
+
+	private Future<?> pendingRegistration;
+
+	/**
+	 * Status of the local instance, kept up to date by registration, setStatus and the
+	 * pushes of Nacos, null if unknown.
+	 */
+	private volatile String localStatus;
+
 	public NacosServiceRegistry(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
@@ -64,18 +90,27 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
-		NamingService namingService = namingService();
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
 
 		Instance instance = getNacosInstanceFromRegistration(registration);
 
+		if (nacosDiscoveryProperties.isRegisterAsync()) {
+			// the naming client is created by the registration task, not on startup
+			registerAsync(serviceId, group, instance);
+			return;
+		}
+
 		try {
-			namingService.registerInstance(serviceId, group, instance);
+			namingService().registerInstance(serviceId, group, instance);
+			registrationStatus = NacosRegistrationStatus.REGISTERED;
+			localStatus = statusOf(instance);
 			log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
 					instance.getIp(), instance.getPort());
 		}
 		catch (Exception e) {
+			registrationStatus = NacosRegistrationStatus.FAILED;
+			lastRegistrationError = e;
 			if (nacosDiscoveryProperties.isFailFast()) {
 				log.error("nacos registry, {} register failed...{},", serviceId,
 						registration.toString(), e);
@@ -98,6 +133,9 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
+		cancelPendingRegistration();
+		localStatus = null;
+
 		NamingService namingService = namingService();
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
@@ -114,8 +152,115 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		log.info("De-registration finished.");
 	}
 
+	private synchronized void registerAsync(String serviceId, String group,
+			Instance instance) {
+		cancelPendingRegistration();
+		registrationStatus = NacosRegistrationStatus.REGISTERING;
+		registrationAttempts.set(0);
+		if (registrationExecutor == null) {
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+					runnable -> {
+						Thread thread = new Thread(runnable, "nacos-registration");
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.setRemoveOnCancelPolicy(true);
+			registrationExecutor = executor;
+		}
+		pendingRegistration = registrationExecutor
+				.submit(() -> attemptRegister(serviceId, group, instance));
+	}
+
+	private void attemptRegister(String serviceId, String group, Instance instance) {
+		int attempt = registrationAttempts.incrementAndGet();
+		try {
+			namingService().registerInstance(serviceId, group, instance);
+		}
+		catch (Exception e) {
+			lastRegistrationError = e;
+			int maxAttempts = nacosDiscoveryProperties.getRegisterRetryMaxAttempts();
+			synchronized (this) {
+				if (registrationStatus != NacosRegistrationStatus.REGISTERING) {
+					return;
+				}
+				if (maxAttempts > 0 && attempt >= maxAttempts) {
+					registrationStatus = NacosRegistrationStatus.FAILED;
+					log.error("nacos registry, {} register failed after {} attempts",
+							serviceId, attempt, e);
+					return;
+				}
+				long delay = backoff(attempt,
+						nacosDiscoveryProperties.getRegisterRetryInitialInterval(),
+						nacosDiscoveryProperties.getRegisterRetryMaxInterval());
+				log.warn("nacos registry, {} register failed, retry in {} ms", serviceId,
+						delay, e);
+				pendingRegistration = registrationExecutor.schedule(
+						() -> attemptRegister(serviceId, group, instance), delay,
+						TimeUnit.MILLISECONDS);
+			}
+			return;
+		}
+		synchronized (this) {
+			if (registrationStatus == NacosRegistrationStatus.REGISTERING) {
+				registrationStatus = NacosRegistrationStatus.REGISTERED;
+				localStatus = statusOf(instance);
+				lastRegistrationError = null;
+				pendingRegistration = null;
+			}
+		}
+		log.info("nacos registry, {} {} {}:{} register finished after {} attempts",
+				group, serviceId, instance.getIp(), instance.getPort(), attempt);
+	}
+
+	/**
+	 * Exponential backoff with equal jitter: half of the delay is fixed, the other half
+	 * is random, so that instances restarted together do not retry in lockstep.
+	 */
+	static long backoff(int attempt, long initialInterval, long maxInterval) {
+		long initial = Math.max(1, initialInterval);
+		long ceiling = (long) Math.min(Math.max(initial, maxInterval),
+				initial * Math.pow(2, Math.min(attempt - 1, 30)));
+		return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+	}
+
+	private synchronized void cancelPendingRegistration() {
+		if (pendingRegistration != null) {
+			pendingRegistration.cancel(false);
+			pendingRegistration = null;
+		}
+		registrationStatus = NacosRegistrationStatus.NOT_REGISTERED;
+	}
+
+	/**
+	 * @return registration state of the local instance
+	 */
+	public NacosRegistrationStatus getRegistrationStatus() {
+		return registrationStatus;
+	}
+
+	/**
+	 * @return attempts of the current asynchronous registration
+	 */
+	public int getRegistrationAttempts() {
+		return registrationAttempts.get();
+	}
+
+	/**
+	 * @return failure of the last registration attempt, null if it succeeded
+	 */
+	public Exception getLastRegistrationError() {
+		return lastRegistrationError;
+	}
+
 	@Override
 	public void close() {
+		synchronized (this) {
+			cancelPendingRegistration();
+			if (registrationExecutor != null) {
+				registrationExecutor.shutdownNow();
+				registrationExecutor = null;
+			}
+		}
 		try {
 			nacosServiceManager.nacosServiceShutDown();
 		}
@@ -148,6 +293,9 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
 			nacosServiceManager.getNamingMaintainService(nacosProperties).updateInstance(
 					serviceId, nacosDiscoveryProperties.getGroup(), instance);
+			if (isLocal(instance)) {
+				localStatus = statusOf(instance);
+			}
 		}
 		catch (Exception e) {
 			throw new RuntimeException("update nacos instance status fail", e);
@@ -158,15 +306,19 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 	@Override
 	public Object getStatus(Registration registration) {
 
+		String status = localStatus;
+		if (status != null) {
+			return status;
+		}
 		String serviceName = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
 		try {
 			List<Instance> instances = namingService().getAllInstances(serviceName,
 					group);
 			for (Instance instance : instances) {
-				if (instance.getIp().equalsIgnoreCase(nacosDiscoveryProperties.getIp())
-						&& instance.getPort() == nacosDiscoveryProperties.getPort()) {
-					return instance.isEnabled() ? "UP" : "DOWN";
+				if (isLocal(instance)) {
+					localStatus = statusOf(instance);
+					return localStatus;
 				}
 			}
 		}
@@ -176,6 +328,24 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		return null;
 	}
 
+	@Override
+	public void onApplicationEvent(NacosLocalInstanceChangedEvent event) {
+		// a push may race with a deregistration, only track registered instances
+		if (registrationStatus == NacosRegistrationStatus.REGISTERED) {
+			// once dropped by the server, ask it again instead of answering a stale status
+			localStatus = event.isAbsent() ? null : statusOf(event.getInstance());
+		}
+	}
+
+	private boolean isLocal(Instance instance) {
+		return instance.getIp().equalsIgnoreCase(nacosDiscoveryProperties.getIp())
+				&& instance.getPort() == nacosDiscoveryProperties.getPort();
+	}
+
+	private static String statusOf(Instance instance) {
+		return instance.isEnabled() ? STATUS_UP : STATUS_DOWN;
+	}
+
 	private Instance getNacosInstanceFromRegistration(Registration registration) {
 		Instance instance = new Instance();
 		instance.setIp(registration.getHost());
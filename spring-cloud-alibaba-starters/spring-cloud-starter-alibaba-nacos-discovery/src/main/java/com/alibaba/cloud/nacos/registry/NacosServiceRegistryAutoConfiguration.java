@@ -22,11 +22,16 @@ import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
+import com.alibaba.cloud.nacos.discovery.actuate.health.NacosRegistrationHealthIndicator;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationAutoConfiguration;
 import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationConfiguration;
@@ -76,4 +81,66 @@ public class NacosServiceRegistryAutoConfiguration {
 				autoServiceRegistrationProperties, registration);
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(HealthIndicator.class)
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.register-async",
+			havingValue = "true")
+	protected static class NacosRegistrationHealthConfiguration {
+
+		@Bean
+		@ConditionalOnEnabledHealthIndicator("nacos-registration")
+		public HealthIndicator nacosRegistrationHealthIndicator(
+				NacosServiceRegistry nacosServiceRegistry) {
+			return new NacosRegistrationHealthIndicator(nacosServiceRegistry);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.graceful-shutdown-enabled",
+			havingValue = "true")
+	protected static class NacosGracefulShutdownConfiguration {
+
+		@Bean
+		public NacosInflightRequestCounter nacosInflightRequestCounter() {
+			return new NacosInflightRequestCounter();
+		}
+
+		@Bean
+		public NacosGracefulShutdown nacosGracefulShutdown(
+				NacosServiceRegistry nacosServiceRegistry,
+				ObjectProvider<NacosRegistration> nacosRegistration,
+				NacosInflightRequestCounter nacosInflightRequestCounter,
+				NacosDiscoveryProperties nacosDiscoveryProperties) {
+			return new NacosGracefulShutdown(nacosServiceRegistry, nacosRegistration,
+					nacosInflightRequestCounter, nacosDiscoveryProperties);
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+		@ConditionalOnClass(name = "javax.servlet.Filter")
+		protected static class ServletInflightRequestConfiguration {
+
+			@Bean
+			public NacosInflightRequestFilter nacosInflightRequestFilter(
+					NacosInflightRequestCounter nacosInflightRequestCounter) {
+				return new NacosInflightRequestFilter(nacosInflightRequestCounter);
+			}
+
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+		protected static class ReactiveInflightRequestConfiguration {
+
+			@Bean
+			public NacosInflightRequestWebFilter nacosInflightRequestWebFilter(
+					NacosInflightRequestCounter nacosInflightRequestCounter) {
+				return new NacosInflightRequestWebFilter(nacosInflightRequestCounter);
+			}
+
+		}
+
+	}
+
 }
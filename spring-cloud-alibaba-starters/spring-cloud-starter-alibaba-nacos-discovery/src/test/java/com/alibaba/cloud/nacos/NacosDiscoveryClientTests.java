@@ -17,7 +17,10 @@
 package com.alibaba.cloud.nacos;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryClient;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
@@ -36,6 +39,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 /**
@@ -132,4 +136,24 @@ public class NacosDiscoveryClientTests {
 		assertThat(ServiceCache.getInstances("a")).isEqualTo(singletonList(serviceInstance));
 	}
 
+	@Test
+	public void testBatchGetInstances() {
+		Map<String, CompletableFuture<List<ServiceInstance>>> lookups = new LinkedHashMap<>();
+		lookups.put("a", CompletableFuture.completedFuture(singletonList(serviceInstance)));
+		CompletableFuture<List<ServiceInstance>> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new NacosException());
+		lookups.put("b", failed);
+		when(serviceDiscovery.getInstancesAsync(eq(Arrays.asList("a", "b"))))
+				.thenReturn(lookups);
+		ServiceCache.setInstances("b", singletonList(serviceInstance));
+		ReflectionTestUtils.setField(client, "failureToleranceEnabled", true);
+
+		Map<String, List<ServiceInstance>> instances = client
+				.getInstances(Arrays.asList("a", "b", "a"));
+
+		assertThat(instances).containsOnlyKeys("a", "b");
+		assertThat(instances.get("a")).containsExactly(serviceInstance);
+		assertThat(instances.get("b")).containsExactly(serviceInstance);
+	}
+
 }
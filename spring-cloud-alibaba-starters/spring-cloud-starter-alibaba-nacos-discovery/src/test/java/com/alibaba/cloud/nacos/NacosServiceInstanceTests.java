@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceInstanceTests {
+
+	@Test
+	public void testBackedByInstance() {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("secure", "true");
+		metadata.put("test-key", "test-value");
+		Instance instance = new Instance();
+		instance.setInstanceId("id");
+		instance.setIp("1.1.1.1");
+		instance.setPort(8080);
+		instance.setWeight(2.0D);
+		instance.setClusterName("SH");
+		instance.setMetadata(metadata);
+
+		NacosServiceInstance serviceInstance = new NacosServiceInstance(instance,
+				"service");
+
+		assertThat(serviceInstance.getWeight()).isEqualTo(2.0D);
+		assertThat(serviceInstance.isHealthy()).isTrue();
+		assertThat(serviceInstance.getClusterName()).isEqualTo("SH");
+		assertThat(serviceInstance.isEphemeral()).isTrue();
+		assertThat(serviceInstance.isSecure()).isTrue();
+		assertThat(serviceInstance.getMetadata())
+				.containsEntry(NacosServiceInstance.METADATA_INSTANCE_ID, "id")
+				.containsEntry(NacosServiceInstance.METADATA_WEIGHT, "2.0")
+				.containsEntry(NacosServiceInstance.METADATA_CLUSTER, "SH")
+				.containsEntry("test-key", "test-value");
+		assertThat(serviceInstance.getMetadata()).isSameAs(serviceInstance.getMetadata());
+	}
+
+	@Test
+	public void testTypedAccessorsFallBackToMetadata() {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosServiceInstance.METADATA_WEIGHT, "3.0");
+		metadata.put(NacosServiceInstance.METADATA_HEALTHY, "false");
+		NacosServiceInstance serviceInstance = new NacosServiceInstance();
+		serviceInstance.setMetadata(metadata);
+
+		assertThat(serviceInstance.getWeight()).isEqualTo(3.0D);
+		assertThat(serviceInstance.isHealthy()).isFalse();
+		assertThat(serviceInstance.getClusterName()).isNull();
+	}
+
+}
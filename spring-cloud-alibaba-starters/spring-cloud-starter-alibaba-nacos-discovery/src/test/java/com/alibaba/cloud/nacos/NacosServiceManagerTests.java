@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.Properties;
+
+import com.alibaba.nacos.api.NacosFactory;
+import com.alibaba.nacos.api.PropertyKeyConst;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceManagerTests {
+
+	@Test
+	public void testPooledByNamespace() throws Exception {
+		try (MockedStatic<NacosFactory> nacosFactory = Mockito
+				.mockStatic(NacosFactory.class)) {
+			nacosFactory.when(() -> NacosFactory.createNamingService((Properties) any()))
+					.thenAnswer(invocation -> mock(NamingService.class));
+			NacosServiceManager nacosServiceManager = new NacosServiceManager();
+
+			NamingService dev = nacosServiceManager.acquireNamingService(properties("dev"));
+			NamingService devAgain = nacosServiceManager
+					.acquireNamingService(properties("dev"));
+			NamingService test = nacosServiceManager
+					.acquireNamingService(properties("test"));
+
+			assertThat(devAgain).isSameAs(dev);
+			assertThat(test).isNotSameAs(dev);
+			nacosFactory.verify(
+					() -> NacosFactory.createNamingService((Properties) any()), times(2));
+
+			nacosServiceManager.releaseNamingService(properties("dev"));
+			verify(dev, never()).shutDown();
+			nacosServiceManager.releaseNamingService(properties("dev"));
+			verify(dev).shutDown();
+
+			nacosServiceManager.nacosServiceShutDown();
+			verify(test, never()).shutDown();
+			nacosServiceManager.releaseNamingService(properties("test"));
+			verify(test).shutDown();
+		}
+	}
+
+	@Test
+	public void testShutDownKeepsServicesAcquiredByOthers() throws Exception {
+		try (MockedStatic<NacosFactory> nacosFactory = Mockito
+				.mockStatic(NacosFactory.class)) {
+			nacosFactory.when(() -> NacosFactory.createNamingService((Properties) any()))
+					.thenAnswer(invocation -> mock(NamingService.class));
+			NacosServiceManager nacosServiceManager = new NacosServiceManager();
+			NamingService own = nacosServiceManager.getNamingService(properties("dev"));
+			NamingService shared = nacosServiceManager
+					.acquireNamingService(properties("dev"));
+			assertThat(shared).isSameAs(own);
+
+			nacosServiceManager.nacosServiceShutDown();
+			verify(own, never()).shutDown();
+
+			nacosServiceManager.releaseNamingService(properties("dev"));
+			verify(own).shutDown();
+		}
+	}
+
+	@Test
+	public void testFailedCreationIsRetried() throws Exception {
+		try (MockedStatic<NacosFactory> nacosFactory = Mockito
+				.mockStatic(NacosFactory.class)) {
+			NamingService created = mock(NamingService.class);
+			nacosFactory.when(() -> NacosFactory.createNamingService((Properties) any()))
+					.thenThrow(new NacosException(NacosException.SERVER_ERROR, "down"))
+					.thenReturn(created);
+			NacosServiceManager nacosServiceManager = new NacosServiceManager();
+
+			assertThatThrownBy(
+					() -> nacosServiceManager.acquireNamingService(properties("dev")))
+							.hasCauseInstanceOf(NacosException.class);
+			assertThat(nacosServiceManager.acquireNamingService(properties("dev")))
+					.isSameAs(created);
+
+			nacosServiceManager.releaseNamingService(properties("dev"));
+			verify(created).shutDown();
+		}
+	}
+
+	@Test
+	public void testKeyCoversAllProperties() {
+		Properties cluster = properties("dev");
+		cluster.put(PropertyKeyConst.CLUSTER_NAME, "a");
+		Properties otherCluster = properties("dev");
+		otherCluster.put(PropertyKeyConst.CLUSTER_NAME, "b");
+		Properties reordered = new Properties();
+		reordered.put(PropertyKeyConst.CLUSTER_NAME, "a");
+		reordered.put(PropertyKeyConst.NAMESPACE, "dev");
+		reordered.put(PropertyKeyConst.SERVER_ADDR, "127.0.0.1:8848");
+
+		assertThat(NacosServiceManager.keyOf(cluster))
+				.isNotEqualTo(NacosServiceManager.keyOf(otherCluster))
+				.isNotEqualTo(NacosServiceManager.keyOf(properties("dev")))
+				.isEqualTo(NacosServiceManager.keyOf(reordered));
+	}
+
+	private static Properties properties(String namespace) {
+		Properties properties = new Properties();
+		properties.put(PropertyKeyConst.SERVER_ADDR, "127.0.0.1:8848");
+		properties.put(PropertyKeyConst.NAMESPACE, namespace);
+		return properties;
+	}
+
+}
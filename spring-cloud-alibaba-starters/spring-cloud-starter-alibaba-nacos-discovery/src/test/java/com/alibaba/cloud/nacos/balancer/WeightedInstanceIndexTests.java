@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class WeightedInstanceIndexTests {
+
+	@Test
+	public void testEmpty() {
+		assertThat(WeightedInstanceIndex.of(Collections.emptyList()).choose()).isNull();
+		assertThat(WeightedInstanceIndex.of(null).isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testSkipUnhealthyAndZeroWeight() {
+		ServiceInstance healthy = instance("a", "1.0", "true");
+		List<ServiceInstance> instances = Arrays.asList(instance("b", "1.0", "false"),
+				healthy, instance("c", "0.0", "true"));
+
+		WeightedInstanceIndex index = WeightedInstanceIndex.of(instances);
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.choose()).isSameAs(healthy);
+	}
+
+	@Test
+	public void testChooseByWeight() {
+		ServiceInstance a = instance("a", "1.0", "true");
+		ServiceInstance b = instance("b", "3.0", "true");
+		WeightedInstanceIndex index = WeightedInstanceIndex.of(Arrays.asList(a, b));
+
+		assertThat(index.choose(0D)).isSameAs(a);
+		assertThat(index.choose(0.24D)).isSameAs(a);
+		// exactly on the boundary belongs to the next instance
+		assertThat(index.choose(0.25D)).isSameAs(b);
+		assertThat(index.choose(0.99D)).isSameAs(b);
+	}
+
+	@Test
+	public void testMissingMetadataUsesDefaults() {
+		List<ServiceInstance> instances = new ArrayList<>();
+		instances.add(new DefaultServiceInstance("a", "service", "127.0.0.1", 8080,
+				false));
+		instances.add(new DefaultServiceInstance("b", "service", "127.0.0.2", 8080,
+				false));
+
+		WeightedInstanceIndex index = WeightedInstanceIndex.of(instances);
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.choose(0.1D).getInstanceId()).isEqualTo("a");
+		assertThat(index.choose(0.9D).getInstanceId()).isEqualTo("b");
+	}
+
+	private static ServiceInstance instance(String id, String weight, String healthy) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", weight);
+		metadata.put("nacos.healthy", healthy);
+		return new DefaultServiceInstance(id, "service", "127.0.0.1", 8080, false,
+				metadata);
+	}
+
+}
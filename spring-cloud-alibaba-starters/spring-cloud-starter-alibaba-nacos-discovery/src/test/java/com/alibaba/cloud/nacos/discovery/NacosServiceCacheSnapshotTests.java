@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceCacheSnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void testSaveAndRestore() throws Exception {
+		NacosServiceCache cache = new NacosServiceCache();
+		cache.setServiceIds(Collections.singletonList("service"));
+		cache.setInstances("service", Collections.singletonList(instance()));
+		NacosServiceCacheSnapshot snapshot = new NacosServiceCacheSnapshot(
+				dir.resolve("nested").resolve("service.snapshot"));
+
+		snapshot.save(cache);
+		NacosServiceCache restored = new NacosServiceCache();
+
+		assertThat(snapshot.restore(restored)).isEqualTo(1);
+		assertThat(restored.getServiceIds()).containsExactly("service");
+		assertThat(restored.peekEntry("service").isRestored()).isTrue();
+		ServiceInstance instance = restored.getInstances("service").get(0);
+		assertThat(instance.getHost()).isEqualTo("1.1.1.1");
+		assertThat(instance.getPort()).isEqualTo(8080);
+		assertThat(instance.getMetadata()).containsEntry("k", "v");
+	}
+
+	@Test
+	public void testRestoreIgnoresCorruptFile() throws Exception {
+		Path file = dir.resolve("service.snapshot");
+		Files.write(file, new byte[] { 1, 2, 3 });
+
+		assertThat(new NacosServiceCacheSnapshot(file).restore(new NacosServiceCache()))
+				.isZero();
+	}
+
+	@Test
+	public void testClientServesRestoredInstancesWhileNacosIsDown() throws Exception {
+		NacosServiceCache cache = new NacosServiceCache();
+		cache.restoreInstances("service", Collections.singletonList(instance()),
+				System.currentTimeMillis());
+		NamingService namingService = mock(NamingService.class);
+		when(namingService.selectInstances(eq("service"), any(), eq(true)))
+				.thenThrow(new NacosException());
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(
+				new NacosDiscoveryProperties(), nacosServiceManager);
+
+		NacosDiscoveryClient client = new NacosDiscoveryClient(serviceDiscovery, cache);
+		List<ServiceInstance> instances = client.getInstances("service");
+
+		assertThat(instances).hasSize(1);
+		verify(namingService, timeout(1000)).selectInstances(eq("service"), any(),
+				eq(true));
+		assertThat(cache.peekEntry("service").isRestored()).isTrue();
+	}
+
+	@Test
+	public void testRestoreRejectsCountsBeyondFileSize() throws Exception {
+		Path file = dir.resolve("service.snapshot");
+		NacosServiceCache cache = new NacosServiceCache();
+		cache.setInstances("service", Collections.singletonList(instance()));
+		NacosServiceCacheSnapshot snapshot = new NacosServiceCacheSnapshot(file);
+		snapshot.save(cache);
+		byte[] bytes = Files.readAllBytes(file);
+		// the service id count follows the magic and the format version
+		ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+		Files.write(file, bytes);
+
+		assertThat(snapshot.restore(new NacosServiceCache())).isZero();
+
+		ByteBuffer.wrap(bytes).putInt(8, -1);
+		Files.write(file, bytes);
+
+		assertThat(snapshot.restore(new NacosServiceCache())).isZero();
+	}
+
+	private static NacosServiceInstance instance() {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("k", "v");
+		NacosServiceInstance instance = new NacosServiceInstance();
+		instance.setServiceId("service");
+		instance.setInstanceId("1.1.1.1#8080");
+		instance.setHost("1.1.1.1");
+		instance.setPort(8080);
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
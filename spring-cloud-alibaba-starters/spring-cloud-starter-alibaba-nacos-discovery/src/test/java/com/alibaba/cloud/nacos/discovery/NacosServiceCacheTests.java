@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceCacheTests {
+
+	private final AtomicLong now = new AtomicLong(1000);
+
+	@Test
+	public void testVersionOnlyMovesOnChange() {
+		NacosServiceCache cache = new NacosServiceCache(10, 60000, now::get);
+
+		List<ServiceInstance> first = cache.setInstances("a",
+				singletonList(instance("1")));
+		long version = cache.getVersion("a");
+		now.addAndGet(10);
+		List<ServiceInstance> same = cache.setInstances("a",
+				new ArrayList<>(singletonList(instance("1"))));
+
+		assertThat(same).isSameAs(first);
+		assertThat(cache.getVersion("a")).isEqualTo(version);
+		assertThat(cache.getEntry("a").getLastRefreshTime()).isEqualTo(1010);
+
+		cache.setInstances("a", singletonList(instance("2")));
+		assertThat(cache.getVersion("a")).isGreaterThan(version);
+	}
+
+	@Test
+	public void testMaxAge() {
+		NacosServiceCache cache = new NacosServiceCache(10, 60000, now::get);
+		cache.setInstances("a", singletonList(instance("1")));
+		now.addAndGet(500);
+
+		assertThat(cache.getInstances("a", 1000)).hasSize(1);
+		assertThat(cache.getInstances("a", 100)).isEmpty();
+		assertThat(cache.getInstances("a")).hasSize(1);
+	}
+
+	@Test
+	public void testIdleEviction() {
+		NacosServiceCache cache = new NacosServiceCache(10, 2000, now::get);
+		cache.setInstances("a", singletonList(instance("1")));
+		now.addAndGet(1500);
+		cache.setInstances("b", singletonList(instance("2")));
+		now.addAndGet(1500);
+		cache.setInstances("c", singletonList(instance("3")));
+
+		assertThat(cache.getCachedServiceIds()).containsExactlyInAnyOrder("b", "c");
+	}
+
+	@Test
+	public void testMaxEntries() {
+		NacosServiceCache cache = new NacosServiceCache(2, 60000, now::get);
+		cache.setInstances("a", singletonList(instance("1")));
+		now.incrementAndGet();
+		cache.setInstances("b", singletonList(instance("2")));
+		now.incrementAndGet();
+		cache.getInstances("a");
+		now.incrementAndGet();
+		cache.setInstances("c", singletonList(instance("3")));
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getCachedServiceIds()).containsExactlyInAnyOrder("a", "c");
+	}
+
+	@Test
+	public void testMaxEntriesKeepsRecentlyAccessedServices() {
+		NacosServiceCache cache = new NacosServiceCache(100, 60000, now::get);
+		for (int i = 0; i < 100; i++) {
+			cache.setInstances("service-" + i, singletonList(instance("1")));
+			now.incrementAndGet();
+		}
+		cache.getInstances("service-0");
+		now.incrementAndGet();
+		for (int i = 100; i < 110; i++) {
+			cache.setInstances("service-" + i, singletonList(instance("1")));
+			now.incrementAndGet();
+		}
+
+		assertThat(cache.size()).isEqualTo(100);
+		assertThat(cache.getCachedServiceIds()).contains("service-0", "service-109");
+	}
+
+	@Test
+	public void testRestoreKeepsVersionOfCachedService() {
+		NacosServiceCache cache = new NacosServiceCache(10, 60000, now::get);
+		cache.setInstances("a", singletonList(instance("1")));
+		long version = cache.getVersion("a");
+
+		assertThat(cache.restoreInstances("a", singletonList(instance("2")), 0))
+				.isFalse();
+		assertThat(cache.restoreInstances("b", singletonList(instance("2")), 0))
+				.isTrue();
+
+		assertThat(cache.getVersion("a")).isEqualTo(version);
+		assertThat(cache.getVersion("b")).isEqualTo(version + 1);
+	}
+
+	private static ServiceInstance instance(String id) {
+		return new DefaultServiceInstance(id, "service", "127.0.0.1", 8080, false);
+	}
+
+}
@@ -17,9 +17,11 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
@@ -33,8 +35,11 @@ import org.springframework.cloud.client.ServiceInstance;
 
 import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -90,6 +95,36 @@ public class NacosServiceDiscoveryTest {
 		assertThat(serviceInstance.getMetadata().get("test-key")).isEqualTo("test-value");
 	}
 
+	@Test
+	public void testBatchGetInstances() throws NacosException {
+		ArrayList<Instance> instances = new ArrayList<>();
+		instances.add(serviceInstance(serviceName, true, host, port, new HashMap<>()));
+
+		NacosDiscoveryProperties nacosDiscoveryProperties = mock(
+				NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(nacosDiscoveryProperties.getGroup()).thenReturn("DEFAULT");
+		when(nacosDiscoveryProperties.getBatchLookupConcurrency()).thenReturn(2);
+		when(namingService.selectInstances(eq(serviceName), eq("DEFAULT"), eq(true)))
+				.thenReturn(instances);
+		when(namingService.selectInstances(eq("other"), eq("DEFAULT"), eq(true)))
+				.thenReturn(new ArrayList<>());
+
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(
+				nacosDiscoveryProperties, nacosServiceManager);
+
+		Map<String, List<ServiceInstance>> serviceInstances = serviceDiscovery
+				.getInstances(Arrays.asList(serviceName, "other", serviceName));
+
+		assertThat(serviceInstances).containsOnlyKeys(serviceName, "other");
+		assertThat(serviceInstances.get(serviceName)).hasSize(1);
+		assertThat(serviceInstances.get("other")).isEmpty();
+		verify(namingService, times(1)).selectInstances(serviceName, "DEFAULT", true);
+	}
+
 	@Test
 	public void testGetServices() throws NacosException {
 		ListView<String> nacosServices = new ListView<>();
@@ -124,6 +159,37 @@ public class NacosServiceDiscoveryTest {
 		assertThat(services.contains(serviceName + "3"));
 	}
 
+	@Test
+	public void testGetServicesPaged() throws NacosException {
+		NacosDiscoveryProperties nacosDiscoveryProperties = mock(
+				NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(nacosDiscoveryProperties.getGroup()).thenReturn("DEFAULT");
+		when(nacosDiscoveryProperties.getServicesPageSize()).thenReturn(2);
+		when(namingService.getServicesOfServer(eq(1), eq(2), eq("DEFAULT")))
+				.thenReturn(listView(3, serviceName + "1", serviceName + "2"));
+		when(namingService.getServicesOfServer(eq(2), eq(2), eq("DEFAULT")))
+				.thenReturn(listView(3, serviceName + "3"));
+
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(
+				nacosDiscoveryProperties, nacosServiceManager);
+
+		assertThat(serviceDiscovery.getServices()).containsExactly(serviceName + "1",
+				serviceName + "2", serviceName + "3");
+		verify(namingService, times(2)).getServicesOfServer(anyInt(), eq(2),
+				eq("DEFAULT"));
+	}
+
+	private static ListView<String> listView(int count, String... services) {
+		ListView<String> listView = new ListView<>();
+		listView.setCount(count);
+		listView.setData(new ArrayList<>(Arrays.asList(services)));
+		return listView;
+	}
+
 	private String getUri(ServiceInstance instance) {
 
 		if (instance.isSecure()) {
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosWatchTests {
+
+	@Test
+	public void testHeartbeatOnlyOnServicesChange() throws Exception {
+		NacosServiceDiscovery serviceDiscovery = mock(NacosServiceDiscovery.class);
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		when(serviceDiscovery.getServices()).thenReturn(Arrays.asList("a", "b"),
+				Arrays.asList("b", "a"), Arrays.asList("a", "b", "c"));
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setWatchServiceNames(true);
+		NacosWatch watch = new NacosWatch(mock(NacosServiceManager.class), properties,
+				serviceDiscovery);
+		watch.setApplicationEventPublisher(publisher);
+
+		watch.nacosServicesWatch();
+		watch.nacosServicesWatch();
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+
+		watch.nacosServicesWatch();
+		verify(publisher, times(2)).publishEvent(any(HeartbeatEvent.class));
+		watch.destroy();
+	}
+
+	@Test
+	public void testHeartbeatCarriesServicesWithChangedInstances() throws Exception {
+		NacosServiceDiscovery serviceDiscovery = mock(NacosServiceDiscovery.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		// like the naming client, subscriptions come without their hosts
+		when(namingService.getSubscribeServices())
+				.thenReturn(Arrays.asList(serviceInfo("a"), serviceInfo("b")));
+		when(namingService.getAllInstances(eq("a"), eq("DEFAULT_GROUP"), anyList(),
+				eq(true))).thenReturn(instances(8080));
+		when(namingService.getAllInstances(eq("b"), eq("DEFAULT_GROUP"), anyList(),
+				eq(true))).thenReturn(instances(8080), instances(8080),
+						instances(9090));
+		NacosWatch watch = new NacosWatch(nacosServiceManager,
+				new NacosDiscoveryProperties(), serviceDiscovery);
+		watch.setApplicationEventPublisher(publisher);
+
+		watch.nacosServicesWatch();
+		watch.nacosServicesWatch();
+		watch.nacosServicesWatch();
+
+		ArgumentCaptor<NacosHeartbeatEvent> events = ArgumentCaptor
+				.forClass(NacosHeartbeatEvent.class);
+		verify(publisher, times(2)).publishEvent(events.capture());
+		assertThat(events.getAllValues().get(0).getChangedServices())
+				.containsExactlyInAnyOrder("a", "b");
+		assertThat(events.getAllValues().get(1).getChangedServices())
+				.containsExactly("b");
+		// the service names of the namespace are not listed by default
+		verify(serviceDiscovery, never()).getServices();
+		watch.destroy();
+	}
+
+	private static ServiceInfo serviceInfo(String name) {
+		return ServiceInfo.fromKey("DEFAULT_GROUP@@" + name);
+	}
+
+	private static List<Instance> instances(int port) {
+		Instance instance = new Instance();
+		instance.setIp("127.0.0.1");
+		instance.setPort(port);
+		return Collections.singletonList(instance);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.discovery.actuate.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class MicrometerNacosDiscoveryMetricsTests {
+
+	@Test
+	public void testServiceTagsAreBounded() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MicrometerNacosDiscoveryMetrics metrics = new MicrometerNacosDiscoveryMetrics(
+				registry, 2);
+
+		metrics.recordEmptyResponse("a");
+		metrics.recordEmptyResponse("b");
+		metrics.recordEmptyResponse("c");
+		metrics.recordEmptyResponse("d");
+		metrics.recordEmptyResponse("a");
+
+		assertThat(registry.get("nacos.loadbalancer.empty.response")
+				.tag("serviceId", "a").counter().count()).isEqualTo(2);
+		assertThat(registry.get("nacos.loadbalancer.empty.response")
+				.tag("serviceId", MicrometerNacosDiscoveryMetrics.OTHER).counter()
+				.count()).isEqualTo(2);
+		assertThat(registry.find("nacos.loadbalancer.empty.response")
+				.tag("serviceId", "c").counter()).isNull();
+	}
+
+	@Test
+	public void testLookupsAreTimed() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		NamingService namingService = mock(NamingService.class);
+		when(namingService.selectInstances(anyString(), anyString(), anyBoolean()))
+				.thenThrow(new NacosException());
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(properties,
+				nacosServiceManager);
+		serviceDiscovery.setMetrics(new MicrometerNacosDiscoveryMetrics(registry, 10));
+
+		assertThatThrownBy(() -> serviceDiscovery.getInstances("service"))
+				.isInstanceOf(NacosException.class);
+
+		assertThat(registry.get("nacos.discovery.instances.lookup")
+				.tag("serviceId", "service").tag("outcome", "error").timer().count())
+						.isEqualTo(1);
+		assertThat(registry.get("nacos.discovery.instances.lookup")
+				.tag("serviceId", "service").tag("outcome", "success").timer()
+				.totalTime(TimeUnit.NANOSECONDS)).isZero();
+	}
+
+}
@@ -17,7 +17,9 @@
 package com.alibaba.cloud.nacos.discovery.reactive;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
+import com.alibaba.cloud.nacos.discovery.NacosServiceCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.cloud.nacos.discovery.ServiceCache;
 import com.alibaba.nacos.api.exception.NacosException;
@@ -33,6 +35,8 @@ import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -142,4 +146,23 @@ class NacosReactiveDiscoveryClientTests {
 						.expectComplete().verify();
 	}
 
+	@Test
+	public void testRestoredInstancesRefreshOnLookupExecutor() {
+		NacosServiceCache cache = new NacosServiceCache();
+		cache.restoreInstances("a", singletonList(serviceInstance),
+				System.currentTimeMillis());
+		when(serviceDiscovery.getInstancesInBackground("a"))
+				.thenReturn(new CompletableFuture<>());
+		NacosReactiveDiscoveryClient client = new NacosReactiveDiscoveryClient(
+				serviceDiscovery, cache);
+
+		StepVerifier.create(client.getInstances("a")).expectNext(serviceInstance)
+				.expectComplete().verify();
+		StepVerifier.create(client.getInstances("a")).expectNext(serviceInstance)
+				.expectComplete().verify();
+
+		// one refresh in flight at a time, on the executor of the service discovery
+		verify(serviceDiscovery, times(1)).getInstancesInBackground("a");
+	}
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosDiscoveryEndpointTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPagedAndFilteredFromCache() throws Exception {
+		NamingService namingService = namingService();
+		NacosDiscoveryEndpoint endpoint = endpoint(namingService);
+
+		Map<String, Object> result = endpoint.nacosDiscovery("order", 2, 2, null);
+
+		List<ServiceInfo> subscribe = (List<ServiceInfo>) result.get("subscribe");
+		assertThat(result.get("total")).isEqualTo(5);
+		assertThat(subscribe).extracting(ServiceInfo::getName)
+				.containsExactly("order-2", "order-3");
+		assertThat(subscribe.get(0).getHosts()).hasSize(1);
+		verify(namingService, times(2)).getAllInstances(anyString(), anyString(),
+				anyList(), eq(true));
+		verify(namingService, never()).getAllInstances(anyString(), anyString(),
+				anyList(), eq(false));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLiveQueriesServer() throws Exception {
+		NamingService namingService = namingService();
+		NacosDiscoveryEndpoint endpoint = endpoint(namingService);
+
+		Map<String, Object> result = endpoint.nacosDiscovery(null, null, null, true);
+
+		List<ServiceInfo> subscribe = (List<ServiceInfo>) result.get("subscribe");
+		assertThat(subscribe).hasSize(6);
+		assertThat(subscribe).allSatisfy(
+				serviceInfo -> assertThat(serviceInfo.getHosts()).hasSize(1));
+		verify(namingService, times(6)).getAllInstances(anyString(), anyString(),
+				anyList(), eq(false));
+	}
+
+	@Test
+	public void testLiveScrapesReuseLookupThreads() throws Exception {
+		NamingService namingService = namingService();
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		when(namingService.getAllInstances(anyString(), anyString(), anyList(),
+				eq(false))).thenAnswer(invocation -> {
+					threads.add(Thread.currentThread());
+					return Collections.emptyList();
+				});
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setBatchLookupConcurrency(2);
+		NacosDiscoveryEndpoint endpoint = new NacosDiscoveryEndpoint(
+				nacosServiceManager, properties);
+
+		endpoint.nacosDiscovery(null, null, null, true);
+		endpoint.nacosDiscovery(null, null, null, true);
+
+		assertThat(threads).isNotEmpty().hasSizeLessThanOrEqualTo(2);
+
+		ExecutorService executor = (ExecutorService) ReflectionTestUtils
+				.getField(endpoint, "lookupExecutor");
+		endpoint.destroy();
+		assertThat(executor.isShutdown()).isTrue();
+	}
+
+	private static NacosDiscoveryEndpoint endpoint(NamingService namingService) {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		return new NacosDiscoveryEndpoint(nacosServiceManager,
+				new NacosDiscoveryProperties());
+	}
+
+	private static NamingService namingService() throws Exception {
+		NamingService namingService = mock(NamingService.class);
+		List<ServiceInfo> subscribed = new ArrayList<>();
+		for (int i = 4; i >= 0; i--) {
+			subscribed.add(serviceInfo("order-" + i));
+		}
+		subscribed.add(serviceInfo("user"));
+		when(namingService.getSubscribeServices()).thenReturn(subscribed);
+		Instance instance = new Instance();
+		instance.setIp("1.1.1.1");
+		instance.setPort(8080);
+		when(namingService.getAllInstances(anyString(), anyString(), anyList(),
+				anyBoolean())).thenReturn(Collections.singletonList(instance));
+		return namingService;
+	}
+
+	private static ServiceInfo serviceInfo(String name) {
+		ServiceInfo serviceInfo = new ServiceInfo();
+		serviceInfo.setName(name);
+		serviceInfo.setGroupName("DEFAULT_GROUP");
+		serviceInfo.setClusters("");
+		return serviceInfo;
+	}
+
+}
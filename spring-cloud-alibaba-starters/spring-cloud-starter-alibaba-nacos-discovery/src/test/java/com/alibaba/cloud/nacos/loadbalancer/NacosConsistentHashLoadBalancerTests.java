@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosConsistentHashLoadBalancerTests {
+
+	@Test
+	public void testScaleOutMovesFewKeys() {
+		List<ServiceInstance> before = instances(4);
+		List<ServiceInstance> after = new ArrayList<>(before);
+		after.add(instance(4));
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get()).thenReturn(Flux.just(before));
+		NacosConsistentHashLoadBalancer loadBalancer = new NacosConsistentHashLoadBalancer(
+				provider(supplier), "service", new NacosDiscoveryProperties(), "X-User",
+				null, NacosConsistentHashLoadBalancer.DEFAULT_VIRTUAL_NODES);
+
+		Map<String, String> routes = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			routes.put("user-" + i, choose(loadBalancer, "user-" + i));
+		}
+		// same key, same instance
+		assertThat(choose(loadBalancer, "user-1")).isEqualTo(routes.get("user-1"));
+
+		when(supplier.get()).thenReturn(Flux.just(after));
+		int moved = 0;
+		for (int i = 0; i < 1000; i++) {
+			String host = choose(loadBalancer, "user-" + i);
+			if (!host.equals(routes.get("user-" + i))) {
+				assertThat(host).isEqualTo("10.0.0.4");
+				moved++;
+			}
+		}
+		// about a fifth of the keys move to the new instance, none between old ones
+		assertThat(moved).isBetween(100, 320);
+	}
+
+	private static String choose(NacosConsistentHashLoadBalancer loadBalancer,
+			String user) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-User", user);
+		RequestData requestData = new RequestData(HttpMethod.GET,
+				URI.create("http://service/"), headers,
+				new LinkedMultiValueMap<>(), new HashMap<>());
+		return loadBalancer
+				.choose(new DefaultRequest<>(new RequestDataContext(requestData)))
+				.block().getServer().getHost();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<ServiceInstanceListSupplier> provider(
+			ServiceInstanceListSupplier supplier) {
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		return provider;
+	}
+
+	private static List<ServiceInstance> instances(int count) {
+		List<ServiceInstance> instances = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			instances.add(instance(i));
+		}
+		return instances;
+	}
+
+	private static ServiceInstance instance(int i) {
+		return new DefaultServiceInstance("i" + i, "service", "10.0.0." + i, 8080,
+				false);
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosInstanceSnapshotTests {
+
+	@Test
+	public void testPartitionByCluster() {
+		ServiceInstance a = instance("a", "SH");
+		ServiceInstance b = instance("b", "HZ");
+		List<ServiceInstance> instances = Arrays.asList(a, b);
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.of(instances);
+
+		assertThat(snapshot.getIndex().size()).isEqualTo(2);
+		assertThat(snapshot.getClusterIndex("SH").choose()).isSameAs(a);
+		assertThat(snapshot.getClusterIndex("HZ").choose()).isSameAs(b);
+		assertThat(snapshot.getClusterIndex("BJ")).isNull();
+	}
+
+	@Test
+	public void testPartitionByZoneAndRegion() {
+		ServiceInstance a = instance("a", "SH");
+		a.getMetadata().put("zone", "sh-a");
+		a.getMetadata().put("region", "east");
+		ServiceInstance b = instance("b", "SH");
+		b.getMetadata().put("zone", "sh-b");
+		b.getMetadata().put("region", "east");
+		b.getMetadata().put("nacos.healthy", "false");
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.of(Arrays.asList(a, b));
+
+		assertThat(snapshot.getZoneIndex("sh-a").choose()).isSameAs(a);
+		assertThat(snapshot.getZoneIndex("sh-b")).isNull();
+		assertThat(snapshot.getZoneSize("sh-b")).isEqualTo(1);
+		assertThat(snapshot.getRegionIndex("east").size()).isEqualTo(1);
+		assertThat(snapshot.getRegionSize("east")).isEqualTo(2);
+		assertThat(snapshot.getClusterSize("SH")).isEqualTo(2);
+		assertThat(snapshot.getRegionSize("west")).isZero();
+	}
+
+	@Test
+	public void testIsBuiltFrom() {
+		List<ServiceInstance> instances = Arrays.asList(instance("a", "SH"));
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.of(instances);
+
+		assertThat(snapshot.isBuiltFrom(instances)).isTrue();
+		// another emission is rebuilt, even with equal instances
+		assertThat(snapshot.isBuiltFrom(new ArrayList<>(instances))).isFalse();
+		assertThat(snapshot.isBuiltFrom(null)).isFalse();
+	}
+
+	private static ServiceInstance instance(String id, String cluster) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", "1.0");
+		metadata.put("nacos.healthy", "true");
+		metadata.put("nacos.cluster", cluster);
+		return new DefaultServiceInstance(id, "service", "127.0.0.1", 8080, false,
+				metadata);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosLeastResponseTimeLoadBalancerTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPrefersFasterInstance() {
+		ServiceInstance fast = new DefaultServiceInstance("fast", "service", "1.1.1.1",
+				8080, false);
+		ServiceInstance slow = new DefaultServiceInstance("slow", "service", "2.2.2.2",
+				8080, false);
+		List<ServiceInstance> instances = Arrays.asList(fast, slow);
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get()).thenReturn(Flux.just(instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		NacosLoadBalancerStats stats = new NacosLoadBalancerStats();
+		stats.get(fast).onStart();
+		stats.get(fast).onComplete(TimeUnit.MILLISECONDS.toNanos(5));
+		stats.get(slow).onStart();
+		stats.get(slow).onComplete(TimeUnit.MILLISECONDS.toNanos(500));
+		NacosLeastResponseTimeLoadBalancer loadBalancer = new NacosLeastResponseTimeLoadBalancer(
+				provider, "service", new NacosDiscoveryProperties(), stats);
+
+		int fastChosen = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (loadBalancer.choose(new DefaultRequest<>()).block()
+					.getServer() == fast) {
+				fastChosen++;
+			}
+		}
+
+		assertThat(fastChosen).isGreaterThan(850);
+	}
+
+	@Test
+	public void testStatsTrackOutstandingRequests() {
+		ServiceInstance instance = new DefaultServiceInstance("i", "service", "1.1.1.1",
+				8080, false);
+		NacosLoadBalancerStats stats = new NacosLoadBalancerStats();
+		NacosLoadBalancerStats.InstanceStats instanceStats = stats.get(instance);
+		assertThat(instanceStats.getCost())
+				.isEqualTo(NacosLoadBalancerStats.UNKNOWN_COST);
+
+		instanceStats.onStart();
+		instanceStats.onStart();
+		double busy = instanceStats.getCost();
+		instanceStats.onComplete(-1);
+
+		assertThat(instanceStats.getOutstanding()).isEqualTo(1);
+		assertThat(instanceStats.getCost()).isLessThan(busy);
+
+		stats.retain("service", Collections.emptyList());
+		assertThat(stats.peek(instance)).isNull();
+	}
+
+}
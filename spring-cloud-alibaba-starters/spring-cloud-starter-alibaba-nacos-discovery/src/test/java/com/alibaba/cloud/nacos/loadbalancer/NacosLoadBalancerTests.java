@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosLoadBalancerTests {
+
+	@Test
+	public void testPrefersSameZoneThenRegion() {
+		ServiceInstance sameZone = instance("a", "sh-a", "east", true);
+		ServiceInstance sameRegion = instance("b", "sh-b", "east", true);
+		ServiceInstance other = instance("c", "bj-a", "north", true);
+
+		NacosLoadBalancer loadBalancer = loadBalancer(
+				Arrays.asList(sameZone, sameRegion, other),
+				new NacosLocality("sh-a", "east", 0));
+		assertThat(choose(loadBalancer)).isSameAs(sameZone);
+
+		loadBalancer = loadBalancer(Arrays.asList(sameRegion, other),
+				new NacosLocality("sh-a", "east", 0));
+		assertThat(choose(loadBalancer)).isSameAs(sameRegion);
+	}
+
+	@Test
+	public void testSpillsOverBelowMinHealthyPercent() {
+		ServiceInstance healthy = instance("a", "sh-a", "east", true);
+		ServiceInstance unhealthy = instance("b", "sh-a", "east", false);
+		ServiceInstance sameRegion = instance("c", "sh-b", "east", true);
+		List<ServiceInstance> instances = Arrays.asList(healthy, unhealthy, sameRegion);
+
+		NacosLoadBalancer loadBalancer = loadBalancer(instances,
+				new NacosLocality("sh-a", "east", 50));
+		for (int i = 0; i < 20; i++) {
+			assertThat(choose(loadBalancer)).isSameAs(healthy);
+		}
+
+		// 1 of 2 instances of the zone is healthy, below 60%: the region is used
+		loadBalancer = loadBalancer(instances, new NacosLocality("sh-a", "east", 60));
+		boolean spilled = false;
+		for (int i = 0; i < 100 && !spilled; i++) {
+			spilled = choose(loadBalancer) == sameRegion;
+		}
+		assertThat(spilled).isTrue();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testReusesSnapshotOfSameEmission() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("a", "sh-a", "east", true), instance("b", "sh-a", "east", true));
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		// the same list while the instances don't change, as the service cache hands out
+		when(supplier.get()).thenAnswer(invocation -> Flux.just(instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		AtomicInteger snapshots = new AtomicInteger();
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(provider, "service",
+				new NacosDiscoveryProperties()) {
+			@Override
+			protected void onSnapshotChanged(NacosInstanceSnapshot snapshot) {
+				snapshots.incrementAndGet();
+			}
+		};
+
+		for (int i = 0; i < 10; i++) {
+			choose(loadBalancer);
+		}
+		assertThat(snapshots.get()).isEqualTo(1);
+
+		when(supplier.get()).thenReturn(Flux.just(Arrays.asList(instances.get(0))));
+		choose(loadBalancer);
+		assertThat(snapshots.get()).isEqualTo(2);
+	}
+
+	private static ServiceInstance choose(NacosLoadBalancer loadBalancer) {
+		return loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static NacosLoadBalancer loadBalancer(List<ServiceInstance> instances,
+			NacosLocality locality) {
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get()).thenReturn(Flux.just(instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setClusterName("");
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(provider, "service",
+				properties);
+		loadBalancer.setLocality(locality);
+		return loadBalancer;
+	}
+
+	private static ServiceInstance instance(String id, String zone, String region,
+			boolean healthy) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", "1.0");
+		metadata.put("nacos.healthy", String.valueOf(healthy));
+		metadata.put("zone", zone);
+		metadata.put("region", region);
+		return new DefaultServiceInstance(id, "service", id + ".local", 8080, false,
+				metadata);
+	}
+
+}
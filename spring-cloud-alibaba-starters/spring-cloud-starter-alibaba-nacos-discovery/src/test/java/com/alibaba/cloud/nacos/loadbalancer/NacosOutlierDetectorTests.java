@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+
+import com.alibaba.cloud.nacos.balancer.WeightedInstanceIndex;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author freeman
+ */
+public class NacosOutlierDetectorTests {
+
+	private final ServiceInstance a = instance("1.1.1.1");
+
+	private final ServiceInstance b = instance("2.2.2.2");
+
+	private final ServiceInstance c = instance("3.3.3.3");
+
+	private final ServiceInstance d = instance("4.4.4.4");
+
+	private final WeightedInstanceIndex index = WeightedInstanceIndex
+			.of(Arrays.asList(a, b, c, d));
+
+	@Test
+	public void testEjectsAfterConsecutiveFailures() {
+		NacosOutlierDetector detector = new NacosOutlierDetector(
+				new NacosLoadBalancerStats(), 3, 60000, 300000, 50);
+
+		detector.onFailure(a);
+		detector.onFailure(a);
+		detector.onSuccess(a);
+		detector.onFailure(a);
+		detector.onFailure(a);
+		assertThat(detector.filter("service", index).size()).isEqualTo(4);
+
+		detector.onFailure(a);
+		WeightedInstanceIndex filtered = detector.filter("service", index);
+		assertThat(filtered.size()).isEqualTo(3);
+		assertThat(detector.filter("service", index)).isSameAs(filtered);
+	}
+
+	@Test
+	public void testMaxEjectionPercent() {
+		NacosOutlierDetector detector = new NacosOutlierDetector(
+				new NacosLoadBalancerStats(), 1, 60000, 300000, 50);
+
+		detector.onFailure(a);
+		detector.onFailure(b);
+		detector.onFailure(c);
+
+		assertThat(detector.filter("service", index).size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testEjectionExpires() throws Exception {
+		NacosOutlierDetector detector = new NacosOutlierDetector(
+				new NacosLoadBalancerStats(), 1, 20, 20, 50);
+
+		detector.onFailure(a);
+		assertThat(detector.filter("service", index).size()).isEqualTo(3);
+
+		Thread.sleep(50);
+		assertThat(detector.filter("service", index).size()).isEqualTo(4);
+	}
+
+	private static ServiceInstance instance(String host) {
+		return new DefaultServiceInstance(host, "service", host, 8080, false);
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceInstanceListSupplierTests {
+
+	private final String serviceName = "test-service";
+
+	@Test
+	public void testPushedInstances() throws Exception {
+		NacosDiscoveryProperties properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(properties.getGroup()).thenReturn("DEFAULT");
+		when(namingService.selectInstances(eq(serviceName), eq("DEFAULT"), eq(true)))
+				.thenReturn(singletonList(instance("1.1.1.1")));
+
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				serviceName, nacosServiceManager, properties);
+
+		List<ServiceInstance> first = supplier.get().next()
+				.block(Duration.ofSeconds(5));
+		assertThat(first).hasSize(1);
+		// the same list is replayed until Nacos pushes a change
+		assertThat(supplier.get().next().block(Duration.ofSeconds(5))).isSameAs(first);
+
+		ArgumentCaptor<EventListener> listener = ArgumentCaptor
+				.forClass(EventListener.class);
+		verify(namingService, timeout(5000)).subscribe(eq(serviceName), eq("DEFAULT"),
+				listener.capture());
+		listener.getValue().onEvent(new NamingEvent(serviceName, "DEFAULT", "",
+				Arrays.asList(instance("1.1.1.1"), instance("2.2.2.2"))));
+
+		assertThat(supplier.get().next().block(Duration.ofSeconds(5))).hasSize(2);
+
+		supplier.destroy();
+		verify(namingService).unsubscribe(eq(serviceName), eq("DEFAULT"), any());
+	}
+
+	@Test
+	public void testSeedDoesNotOverwriteNewerEvent() throws Exception {
+		NacosDiscoveryProperties properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(properties.getGroup()).thenReturn("DEFAULT");
+		ArgumentCaptor<EventListener> listener = ArgumentCaptor
+				.forClass(EventListener.class);
+		// Nacos pushes a change while the seed is being read
+		when(namingService.selectInstances(eq(serviceName), eq("DEFAULT"), eq(true)))
+				.thenAnswer(invocation -> {
+					verify(namingService).subscribe(eq(serviceName), eq("DEFAULT"),
+							listener.capture());
+					listener.getValue().onEvent(new NamingEvent(serviceName, "DEFAULT",
+							"", Arrays.asList(instance("1.1.1.1"), instance("2.2.2.2"))));
+					return singletonList(instance("1.1.1.1"));
+				});
+
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				serviceName, nacosServiceManager, properties);
+		supplier.get();
+		verify(namingService, timeout(5000)).selectInstances(eq(serviceName),
+				eq("DEFAULT"), eq(true));
+
+		assertThat(supplier.get().next().block(Duration.ofSeconds(5))).hasSize(2);
+		supplier.destroy();
+	}
+
+	private Instance instance(String host) {
+		Instance instance = serviceInstance(serviceName, true, host, 8080,
+				new HashMap<>());
+		instance.setInstanceId(host);
+		return instance;
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author freeman
+ */
+public class NacosGracefulShutdownTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testMarkDownThenDrainThenDeregister() throws Exception {
+		NacosServiceRegistry serviceRegistry = mock(NacosServiceRegistry.class);
+		NacosRegistration registration = mock(NacosRegistration.class);
+		NacosInflightRequestCounter counter = new NacosInflightRequestCounter();
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setGracefulShutdownPropagationWindow(10);
+		properties.setGracefulShutdownDrainTimeout(5000);
+		NacosGracefulShutdown gracefulShutdown = new NacosGracefulShutdown(
+				serviceRegistry, mock(ObjectProvider.class), counter, properties);
+
+		counter.begin();
+		CompletableFuture<Void> shutdown = CompletableFuture
+				.runAsync(() -> gracefulShutdown.shutdown(registration));
+		Thread.sleep(100);
+		assertThat(shutdown).isNotDone();
+
+		counter.end();
+		shutdown.get(5, TimeUnit.SECONDS);
+
+		InOrder inOrder = inOrder(serviceRegistry);
+		inOrder.verify(serviceRegistry).setStatus(registration, "DOWN");
+		inOrder.verify(serviceRegistry).deregister(registration);
+	}
+
+	@Test
+	public void testDrainTimeout() throws Exception {
+		NacosInflightRequestCounter counter = new NacosInflightRequestCounter();
+		counter.begin();
+
+		assertThat(counter.awaitDrained(10)).isFalse();
+		counter.end();
+		assertThat(counter.awaitDrained(10)).isTrue();
+	}
+
+}
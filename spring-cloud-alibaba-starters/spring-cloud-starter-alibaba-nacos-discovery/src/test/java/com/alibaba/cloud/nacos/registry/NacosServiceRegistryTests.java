@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosLocalInstanceChangedEvent;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingMaintainService;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author freeman
+ */
+public class NacosServiceRegistryTests {
+
+	@Test
+	public void testAsyncRegisterRetries() throws Exception {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		doThrow(new NacosException()).doThrow(new NacosException()).doNothing()
+				.when(namingService)
+				.registerInstance(eq("service"), eq("DEFAULT_GROUP"), any(Instance.class));
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setRegisterAsync(true);
+		properties.setRegisterRetryInitialInterval(1);
+		properties.setRegisterRetryMaxInterval(10);
+		NacosServiceRegistry registry = new NacosServiceRegistry(nacosServiceManager,
+				properties);
+
+		registry.register(registration());
+
+		verify(namingService, timeout(2000).times(3)).registerInstance(eq("service"),
+				eq("DEFAULT_GROUP"), any(Instance.class));
+		Thread.sleep(50);
+		assertThat(registry.getRegistrationStatus())
+				.isEqualTo(NacosRegistrationStatus.REGISTERED);
+		assertThat(registry.getRegistrationAttempts()).isEqualTo(3);
+		registry.close();
+	}
+
+	@Test
+	public void testAsyncRegisterCreatesNamingServiceOffCallerThread() throws Exception {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		List<String> threads = new CopyOnWriteArrayList<>();
+		when(nacosServiceManager.getNamingService()).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread().getName());
+			return namingService;
+		});
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setRegisterAsync(true);
+		NacosServiceRegistry registry = new NacosServiceRegistry(nacosServiceManager,
+				properties);
+
+		registry.register(registration());
+
+		verify(namingService, timeout(2000)).registerInstance(eq("service"),
+				eq("DEFAULT_GROUP"), any(Instance.class));
+		assertThat(threads).containsOnly("nacos-registration");
+		registry.close();
+	}
+
+	@Test
+	public void testAsyncRegisterGivesUp() throws Exception {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		doThrow(new NacosException()).when(namingService).registerInstance(any(), any(),
+				any(Instance.class));
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setRegisterAsync(true);
+		properties.setRegisterRetryInitialInterval(1);
+		properties.setRegisterRetryMaxAttempts(2);
+		NacosServiceRegistry registry = new NacosServiceRegistry(nacosServiceManager,
+				properties);
+
+		registry.register(registration());
+
+		verify(namingService, timeout(2000).times(2)).registerInstance(any(), any(),
+				any(Instance.class));
+		Thread.sleep(50);
+		verify(namingService, times(2)).registerInstance(any(), any(),
+				any(Instance.class));
+		assertThat(registry.getRegistrationStatus())
+				.isEqualTo(NacosRegistrationStatus.FAILED);
+		registry.close();
+	}
+
+	@Test
+	public void testBackoffIsBounded() {
+		for (int attempt = 1; attempt < 100; attempt++) {
+			long delay = NacosServiceRegistry.backoff(attempt, 100, 1000);
+			assertThat(delay).isBetween(50L, 1000L);
+		}
+	}
+
+	@Test
+	public void testStatusIsAnsweredLocally() throws Exception {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(nacosServiceManager.getNamingMaintainService(any()))
+				.thenReturn(mock(NamingMaintainService.class));
+		NacosDiscoveryProperties properties = spy(new NacosDiscoveryProperties());
+		doReturn(new Properties()).when(properties).getNacosProperties();
+		properties.setIp("127.0.0.1");
+		properties.setPort(8080);
+		NacosServiceRegistry registry = new NacosServiceRegistry(nacosServiceManager,
+				properties);
+		Registration registration = registration();
+
+		registry.register(registration);
+		assertThat(registry.getStatus(registration)).isEqualTo("UP");
+		registry.setStatus(registration, "DOWN");
+		assertThat(registry.getStatus(registration)).isEqualTo("DOWN");
+
+		Instance pushed = new Instance();
+		pushed.setIp("127.0.0.1");
+		pushed.setPort(8080);
+		pushed.setEnabled(true);
+		registry.onApplicationEvent(new NacosLocalInstanceChangedEvent(pushed));
+		assertThat(registry.getStatus(registration)).isEqualTo("UP");
+		verify(namingService, never()).getAllInstances(any(), any(String.class));
+	}
+
+	@Test
+	public void testStatusIsClearedWhenServerDropsInstance() throws Exception {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NamingService namingService = mock(NamingService.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(nacosServiceManager.getNamingMaintainService(any()))
+				.thenReturn(mock(NamingMaintainService.class));
+		when(namingService.getAllInstances(any(), any(String.class)))
+				.thenReturn(Collections.emptyList());
+		NacosDiscoveryProperties properties = spy(new NacosDiscoveryProperties());
+		doReturn(new Properties()).when(properties).getNacosProperties();
+		properties.setIp("127.0.0.1");
+		properties.setPort(8080);
+		NacosServiceRegistry registry = new NacosServiceRegistry(nacosServiceManager,
+				properties);
+		Registration registration = registration();
+
+		registry.register(registration);
+		assertThat(registry.getStatus(registration)).isEqualTo("UP");
+
+		registry.onApplicationEvent(new NacosLocalInstanceChangedEvent(this, null));
+		assertThat(registry.getStatus(registration)).isNull();
+		verify(namingService).getAllInstances("service", properties.getGroup());
+	}
+
+	private static Registration registration() {
+		Registration registration = mock(Registration.class);
+		when(registration.getServiceId()).thenReturn("service");
+		when(registration.getHost()).thenReturn("127.0.0.1");
+		when(registration.getPort()).thenReturn(8080);
+		when(registration.getMetadata()).thenReturn(Collections.emptyMap());
+		return registration;
+	}
+
+}